@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+#
+# Builds an application class-data sharing archive for the repackaged jar.
+#
+#   create-archive.sh <spring-boot-jar> <output-dir>
+#
+# CDS cannot map classes out of the nested jars of a Spring Boot jar, so the jar is first unpacked into
+# <output-dir>/application.jar (the application classes, with a Class-Path to <output-dir>/lib). A training run
+# records the classes loaded until the application has started, and -Xshare:dump turns that list into
+# application.jsa. Works on Java 11 and later; start the application with
+#
+#   java -XX:SharedArchiveFile=application.jsa -jar application.jar
+#
+# from <output-dir>. The training run uses the memory profile so it does not need Postgres; override it with
+# CDS_TRAINING_ARGS.
+set -euo pipefail
+
+jar_file=$(realpath "$1")
+output_dir=$2
+training_args=${CDS_TRAINING_ARGS:---spring.profiles.active=memory}
+startup_timeout=${CDS_STARTUP_TIMEOUT:-120}
+
+rm -rf "$output_dir"
+mkdir -p "$output_dir/exploded" "$output_dir/lib"
+cd "$output_dir"
+
+(cd exploded && jar -xf "$jar_file")
+
+start_class=$(sed -n 's/^Start-Class: *//p' exploded/META-INF/MANIFEST.MF | tr -d '\r')
+class_path=""
+while read -r entry; do
+  library=$(basename "$entry")
+  cp "exploded/$entry" "lib/$library"
+  class_path="$class_path lib/$library"
+done < <(sed -n 's/^- "\(.*\)"$/\1/p' exploded/BOOT-INF/classpath.idx)
+
+# Manifest lines are limited to 72 bytes; continuation lines start with a single space
+{
+  echo "Main-Class: $start_class"
+  echo "Class-Path:$class_path" | fold -w 70 | sed '2,$s/^/ /'
+} > manifest.txt
+jar --create --file application.jar --manifest manifest.txt -C exploded/BOOT-INF/classes .
+rm -rf exploded manifest.txt
+
+echo "Training run: java -jar application.jar --server.port=0 $training_args"
+java -XX:DumpLoadedClassList=application.classlist -Dspring.devtools.restart.enabled=false \
+  -jar application.jar --server.port=0 $training_args > training.log 2>&1 &
+training_pid=$!
+for _ in $(seq "$startup_timeout"); do
+  if grep -q "Started .* in " training.log; then
+    break
+  fi
+  if ! kill -0 "$training_pid" 2>/dev/null; then
+    cat training.log
+    echo "Training run exited before the application started" >&2
+    exit 1
+  fi
+  sleep 1
+done
+if ! grep -q "Started .* in " training.log; then
+  kill -9 "$training_pid"
+  echo "Application did not start within ${startup_timeout}s, see $output_dir/training.log" >&2
+  exit 1
+fi
+kill -TERM "$training_pid"
+wait "$training_pid" || true
+
+java -Xshare:dump -XX:SharedClassListFile=application.classlist -XX:SharedArchiveFile=application.jsa \
+  -cp application.jar > dump.log 2>&1 || { cat dump.log; exit 1; }
+
+echo "Archived $(wc -l < application.classlist) classes in $output_dir/application.jsa"
+echo "Run with: (cd $output_dir && java -XX:SharedArchiveFile=application.jsa -jar application.jar)"
@@ -0,0 +1,176 @@
+package com.robsonkades.springwebflux.benchmark;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.robsonkades.springwebflux.config.CodecConfig;
+import com.robsonkades.springwebflux.domain.Anime;
+
+/**
+ * Encodes animes the way WebFlux writes a response body, then applies the content coding, so the score is the
+ * encode CPU per format, and the {@code bytes} secondary result the size on the wire. Streaming types are
+ * encoded element by element from a {@code Flux}; the others as one {@code List}, as {@code GET /animes} returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeEncodingBenchmark {
+
+    private static final ResolvableType ANIME_TYPE = ResolvableType.forClass(Anime.class);
+
+    private static final ResolvableType ANIME_LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, Anime.class);
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    @Param({MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            CodecConfig.APPLICATION_SMILE_VALUE})
+    private String mediaType;
+
+    /**
+     * Same levels as the server: the default deflate level 6, as Netty uses for gzip, and {@code BrotliCompressionWebFilter}'s quality.
+     */
+    @Param({"identity", "gzip", "br"})
+    private String contentEncoding;
+
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private final Encoder.Parameters brotliParameters = new Encoder.Parameters().setQuality(4);
+
+    private AbstractJackson2Encoder encoder;
+
+    private MediaType contentType;
+
+    private boolean streaming;
+
+    private List<Anime> animes;
+
+    @Setup
+    public void setup() throws IOException {
+        contentType = MediaType.parseMediaType(mediaType);
+        if (MediaType.APPLICATION_CBOR.equals(contentType)) {
+            encoder = new Jackson2CborEncoder(Jackson2ObjectMapperBuilder.cbor().build(), contentType);
+        } else if (CodecConfig.APPLICATION_SMILE.equals(contentType)) {
+            encoder = new Jackson2SmileEncoder(Jackson2ObjectMapperBuilder.smile().build(), contentType);
+        } else {
+            encoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+        }
+        streaming = encoder.getStreamingMediaTypes().contains(contentType);
+        if ("br".equals(contentEncoding)) {
+            Brotli4jLoader.ensureAvailability();
+        }
+        animes = IntStream.rangeClosed(1, size)
+                .mapToObj(id -> new Anime(id, "Anime " + id, 0))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int encode(WireSize wireSize) throws IOException {
+        byte[] body = streaming ? encodeStream() : encodeList();
+        switch (contentEncoding) {
+            case "gzip":
+                return wireSize.record(gzip(body).length);
+            case "br":
+                return wireSize.record(Encoder.compress(body, brotliParameters).length);
+            default:
+                return wireSize.record(body.length);
+        }
+    }
+
+    /**
+     * Reports the size of one encoded body as the {@code bytes} secondary result, saved with the scores. JMH sums
+     * event counters over threads, measurement iterations and forks, so each reports its share of the size.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+
+        public double bytes;
+
+        private int shares;
+
+        @Setup(Level.Trial)
+        public void setup(BenchmarkParams params) {
+            shares = params.getThreads() * params.getMeasurement().getCount() * Math.max(1, params.getForks());
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+
+        private int record(int length) {
+            bytes = (double) length / shares;
+            return length;
+        }
+    }
+
+    private byte[] encodeList() {
+        return toBytes(encoder.encodeValue(animes, bufferFactory, ANIME_LIST_TYPE, contentType, Collections.emptyMap()));
+    }
+
+    private byte[] encodeStream() {
+        return encoder.encode(Flux.fromIterable(animes), bufferFactory, ANIME_TYPE, contentType, Collections.emptyMap())
+                .reduce(new ByteArrayOutputStream(), (output, buffer) -> {
+                    byte[] bytes = toBytes(buffer);
+                    output.write(bytes, 0, bytes.length);
+                    return output;
+                })
+                .map(ByteArrayOutputStream::toByteArray)
+                .block();
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(body);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+package com.robsonkades.springwebflux.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.repository.StripedIntObjectMap;
+
+/**
+ * Compares the storage map of the {@code memory} profile with a {@code ConcurrentHashMap<Integer, Anime>} under a
+ * read-mostly mix (one write every {@code writeEvery} operations) from one thread per CPU.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class AnimeMapBenchmark {
+
+    @Param({"10000", "1000000"})
+    private int size;
+
+    @Param({"10"})
+    private int writeEvery;
+
+    private StripedIntObjectMap<Anime> stripedMap;
+
+    private Map<Integer, Anime> concurrentHashMap;
+
+    private Anime[] animes;
+
+    @Setup
+    public void setup() {
+        stripedMap = new StripedIntObjectMap<>(Runtime.getRuntime().availableProcessors() * 4);
+        concurrentHashMap = new ConcurrentHashMap<>();
+        animes = new Anime[size + 1];
+        for (int id = 1; id <= size; id++) {
+            animes[id] = new Anime(id, "Anime " + id, 0);
+            stripedMap.put(id, animes[id]);
+            concurrentHashMap.put(id, animes[id]);
+        }
+    }
+
+    @Benchmark
+    public Anime stripedIntObjectMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = random.nextInt(1, size + 1);
+        if (random.nextInt(writeEvery) == 0) {
+            return stripedMap.put(id, animes[id]);
+        }
+        return stripedMap.get(id);
+    }
+
+    @Benchmark
+    public Anime concurrentHashMap() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int id = random.nextInt(1, size + 1);
+        if (random.nextInt(writeEvery) == 0) {
+            return concurrentHashMap.put(id, animes[id]);
+        }
+        return concurrentHashMap.get(id);
+    }
+}
@@ -0,0 +1,120 @@
+package com.robsonkades.springwebflux.benchmark;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.config.MemoryStorageConfig;
+import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChunkResult;
+import com.robsonkades.springwebflux.domain.AnimePage;
+import com.robsonkades.springwebflux.metrics.ReactiveMetrics;
+import com.robsonkades.springwebflux.service.AnimeBatchLoader;
+import com.robsonkades.springwebflux.service.AnimeCache;
+import com.robsonkades.springwebflux.service.AnimeNameIndex;
+import com.robsonkades.springwebflux.service.AnimePageFlight;
+import com.robsonkades.springwebflux.service.AnimeService;
+import com.robsonkades.springwebflux.service.AnimeSnapshot;
+import com.robsonkades.springwebflux.util.StubAnimeRepository;
+
+/**
+ * Measures the overhead {@link AnimeService} adds on top of its repository (cache, metrics, validation, paging)
+ * by running it against {@link StubAnimeRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimeServiceBenchmark {
+
+    private static final int INGEST_ROWS = 1_000;
+
+    /**
+     * Runs the transactional pipelines through Spring's transaction machinery over the in-memory profile's manager,
+     * which has nothing to commit, like the stub repository.
+     */
+    private static final TransactionalOperator TRANSACTIONS =
+            TransactionalOperator.create(new MemoryStorageConfig().transactionManager());
+
+    @Param({"100", "10000"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    private AnimeService animeService;
+
+    private List<Anime> ingestRows;
+
+    private int nextId;
+
+    @Setup
+    public void setup() {
+        AnimeProperties animeProperties = new AnimeProperties();
+        if (!cached) {
+            animeProperties.getCache().setTtl(Duration.ZERO);
+            animeProperties.getCache().setNegativeTtl(Duration.ZERO);
+        }
+        // a single blocking caller never has company to batch with, so the window would only add latency
+        animeProperties.getLoader().setWindow(Duration.ZERO);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StubAnimeRepository animeRepository = new StubAnimeRepository(size);
+        CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("anime");
+        animeService = new AnimeService(animeRepository, animeProperties, TRANSACTIONS,
+                new AnimeCache(animeProperties, meterRegistry), new AnimeNameIndex(), new AnimePageFlight(meterRegistry),
+                new AnimeBatchLoader(animeRepository, circuitBreaker, animeProperties, meterRegistry),
+                new AnimeSnapshot(animeProperties), circuitBreaker, new ReactiveMetrics(meterRegistry));
+
+        ingestRows = IntStream.range(0, INGEST_ROWS)
+                .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Anime findById() {
+        nextId = nextId % size + 1;
+        return animeService.findById(nextId).block();
+    }
+
+    @Benchmark
+    public AnimePage findPage() {
+        return animeService.findPage(nextId++ % size, null).block();
+    }
+
+    @Benchmark
+    public List<Anime> findAll() {
+        return animeService.findAll().collectList().block();
+    }
+
+    @Benchmark
+    public List<Anime> streamAll() {
+        return animeService.streamAll().collectList().block();
+    }
+
+    @Benchmark
+    public List<AnimeChunkResult> ingest() {
+        return animeService.ingest(Flux.fromIterable(ingestRows)).collectList().block();
+    }
+}
@@ -0,0 +1,73 @@
+package com.robsonkades.springwebflux.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.WebProperties;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.robsonkades.springwebflux.exception.CustomAttributes;
+import com.robsonkades.springwebflux.exception.GlobalExceptionHandler;
+import com.robsonkades.springwebflux.exception.ProblemBodies;
+import com.robsonkades.springwebflux.exception.StatusException;
+
+/**
+ * Renders a {@link ResponseStatusException} through {@link GlobalExceptionHandler} on a mock exchange: a precomputed
+ * problem body, or with {@code trace} the error attributes including the stack trace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorRenderingBenchmark {
+
+    @Param({"BAD_REQUEST", "NOT_FOUND"})
+    private HttpStatus status;
+
+    @Param({"false", "true"})
+    private boolean trace;
+
+    private GlobalExceptionHandler exceptionHandler;
+
+    private String path;
+
+    @Setup
+    public void setup() throws Exception {
+        StaticApplicationContext applicationContext = new StaticApplicationContext();
+        applicationContext.refresh();
+        ServerProperties serverProperties = new ServerProperties();
+        serverProperties.getError().setIncludeStacktrace(ErrorProperties.IncludeAttribute.ON_PARAM);
+        exceptionHandler = new GlobalExceptionHandler(new CustomAttributes(), new WebProperties(), serverProperties,
+                applicationContext, ServerCodecConfigurer.create(), new ProblemBodies(new ObjectMapper()));
+        exceptionHandler.afterPropertiesSet();
+        path = trace ? "/animes/1?trace=true" : "/animes/1";
+    }
+
+    @Benchmark
+    public MockServerWebExchange render() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        exceptionHandler.handle(exchange, new StatusException(status, "Anime not found")).block();
+        return exchange;
+    }
+}
@@ -1,24 +1,23 @@
 package com.robsonkades.springwebflux;
 
-import reactor.blockhound.BlockHound;
-
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+import com.robsonkades.springwebflux.config.BlockHoundInstaller;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class SpringWebfluxApplication {
 
-    static {
-        BlockHound
-                .builder()
-                .allowBlockingCallsInside("java.io.RandomAccessFile", "readBytes")
-                .install();
-    }
+    private static final int STARTUP_STEPS = 8192;
 
     public static void main(String[] args) {
-        System.out.println(PasswordEncoderFactories.createDelegatingPasswordEncoder().encode("admin"));
-        SpringApplication.run(SpringWebfluxApplication.class, args);
+        BlockHoundInstaller.installForProfiles(args);
+        new SpringApplicationBuilder(SpringWebfluxApplication.class)
+                .applicationStartup(new BufferingApplicationStartup(STARTUP_STEPS))
+                .run(args);
     }
 
 }
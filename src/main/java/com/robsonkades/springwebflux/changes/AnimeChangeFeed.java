@@ -0,0 +1,161 @@
+package com.robsonkades.springwebflux.changes;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.domain.AnimeChange;
+
+/**
+ * Fans the changes of the anime table out to every {@code GET /animes/changes} subscriber. Changes are numbered and
+ * kept in a ring of the last {@code anime.changes.replay-size}; a change or a heartbeat only wakes the subscribers up,
+ * and each reads the ring from its own position. A subscriber thus holds its position and at most one pending wake-up
+ * however slowly it reads. One that falls out of the ring, or resumes from an id of another instance or an earlier
+ * run, gets a {@code reset} event telling it to reload instead of the changes it missed.
+ * <p>
+ * Event ids are {@code <instance>-<sequence>}. Publishes the {@code anime.changes.subscribers} gauge.
+ */
+@Component
+public class AnimeChangeFeed {
+
+    static final String RESET = "reset";
+
+    private static final ServerSentEvent<AnimeChange> HEARTBEAT =
+            ServerSentEvent.<AnimeChange>builder().comment("heartbeat").build();
+
+    private final String instance = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final Event[] ring;
+
+    private final Sinks.Many<Boolean> wakeUps = Sinks.many().multicast().directBestEffort();
+
+    private final Flux<Boolean> heartbeats;
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private long sequence;
+
+    public AnimeChangeFeed(AnimeProperties animeProperties, MeterRegistry meterRegistry) {
+        AnimeProperties.Changes changes = animeProperties.getChanges();
+        this.ring = new Event[changes.getReplaySize()];
+        this.heartbeats = Flux.interval(changes.getHeartbeat())
+                .map(tick -> true)
+                .onBackpressureDrop()
+                .share();
+        Gauge.builder("anime.changes.subscribers", subscribers, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    public void publish(AnimeChange change) {
+        append(change);
+    }
+
+    /**
+     * Tells every subscriber to reload, for when changes may have been missed.
+     */
+    public void reset() {
+        append(null);
+    }
+
+    private synchronized void append(AnimeChange change) {
+        sequence++;
+        ring[(int) (sequence % ring.length)] = new Event(sequence, change);
+        // emitted under the lock to keep the sink serialized, subscribers only take note of the wake-up here
+        wakeUps.tryEmitNext(false);
+    }
+
+    /**
+     * Changes after {@code lastEventId}, or from now on when it is {@code null}, with a heartbeat comment whenever
+     * there was nothing to send for a while.
+     */
+    public Flux<ServerSentEvent<AnimeChange>> subscribe(String lastEventId) {
+        return Flux.defer(() -> {
+            long[] position = {start(lastEventId)};
+            // the first read comes after the subscription to the wake-ups, so no change can slip in between
+            return Flux.merge(wakeUps.asFlux(), heartbeats, Mono.just(true))
+                    .onBackpressureLatest()
+                    .publishOn(Schedulers.parallel(), 1)
+                    .concatMapIterable(heartbeat -> read(position, heartbeat), 1)
+                    .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                    .doFinally(signal -> subscribers.decrementAndGet());
+        });
+    }
+
+    private synchronized long start(String lastEventId) {
+        if (lastEventId == null) {
+            return sequence;
+        }
+        String prefix = instance + "-";
+        if (lastEventId.startsWith(prefix)) {
+            try {
+                long position = Long.parseLong(lastEventId.substring(prefix.length()));
+                if (position >= 0 && position <= sequence) {
+                    return position;
+                }
+            } catch (NumberFormatException e) {
+                // not one of ours, reset
+            }
+        }
+        return -1;
+    }
+
+    private synchronized List<ServerSentEvent<AnimeChange>> read(long[] position, boolean heartbeat) {
+        List<ServerSentEvent<AnimeChange>> events = new ArrayList<>();
+        if (position[0] < 0 || position[0] < sequence - ring.length) {
+            position[0] = sequence;
+            events.add(reset(sequence));
+        }
+        while (position[0] < sequence) {
+            events.add(toEvent(ring[(int) (++position[0] % ring.length)]));
+        }
+        if (events.isEmpty() && heartbeat) {
+            events.add(HEARTBEAT);
+        }
+        return events;
+    }
+
+    private ServerSentEvent<AnimeChange> toEvent(Event event) {
+        if (event.change == null) {
+            return reset(event.sequence);
+        }
+        return ServerSentEvent.builder(event.change)
+                .id(id(event.sequence))
+                .event(event.change.getType().name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+
+    private ServerSentEvent<AnimeChange> reset(long sequence) {
+        return ServerSentEvent.<AnimeChange>builder()
+                .id(id(sequence))
+                .event(RESET)
+                .build();
+    }
+
+    private String id(long sequence) {
+        return instance + "-" + sequence;
+    }
+
+    private static final class Event {
+
+        private final long sequence;
+
+        private final AnimeChange change;
+
+        private Event(long sequence, AnimeChange change) {
+            this.sequence = sequence;
+            this.change = change;
+        }
+    }
+}
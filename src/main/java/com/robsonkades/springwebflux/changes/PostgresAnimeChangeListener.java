@@ -0,0 +1,136 @@
+package com.robsonkades.springwebflux.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.domain.AnimeChange;
+
+/**
+ * Feeds the notifications of the {@code anime_changes} trigger into the {@link AnimeChangeFeed}. The instance
+ * listens on one connection of its own, opened next to the pool, whatever the number of subscribers. When that
+ * connection drops it is reopened with backoff, and the subscribers are told to reload once it listens again, as
+ * changes made in between were not seen.
+ */
+@Slf4j
+@Component
+public class PostgresAnimeChangeListener implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    /**
+     * Channels the {@code anime_changes} trigger notifies, its first argument; {@code tgargs} holds the arguments
+     * NUL-terminated.
+     */
+    private static final String TRIGGER_CHANNEL_QUERY = "SELECT split_part(encode(tgargs, 'escape'), '\\000', 1)"
+            + " FROM pg_trigger WHERE tgrelid = 'anime'::regclass AND tgname = 'anime_changes'";
+
+    private final ObjectProvider<ConnectionFactory> connectionFactory;
+
+    private final AnimeChangeFeed animeChangeFeed;
+
+    private final AnimeProperties animeProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Disposable listening;
+
+    public PostgresAnimeChangeListener(ObjectProvider<ConnectionFactory> connectionFactory,
+                                       AnimeChangeFeed animeChangeFeed, AnimeProperties animeProperties,
+                                       ObjectMapper objectMapper) {
+        this.connectionFactory = connectionFactory;
+        this.animeChangeFeed = animeChangeFeed;
+        this.animeProperties = animeProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        PostgresqlConnectionFactory postgres = unwrapPostgres(connectionFactory.getIfAvailable());
+        if (postgres == null) {
+            return;
+        }
+        AnimeProperties.Changes changes = animeProperties.getChanges();
+        AtomicBoolean listenedBefore = new AtomicBoolean();
+        listening = Flux.usingWhen(postgres.create(),
+                        connection -> checkChannel(connection, changes.getChannel())
+                                .then(listen(connection, changes.getChannel()))
+                                .doOnSuccess(listened -> {
+                                    if (listenedBefore.getAndSet(true)) {
+                                        animeChangeFeed.reset();
+                                    }
+                                })
+                                .thenMany(connection.getNotifications())
+                                .concatWith(Mono.error(() -> new IllegalStateException("Listener connection closed"))),
+                        PostgresqlConnection::close)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, changes.getMinReconnectDelay())
+                        .maxBackoff(changes.getMaxReconnectDelay())
+                        // a misconfigured channel stays misconfigured, reconnecting does not help
+                        .filter(e -> !(e instanceof IllegalArgumentException))
+                        .doBeforeRetry(signal -> log.warn("Lost the anime change listener, reconnecting: {}",
+                                signal.failure().toString())))
+                .subscribe(notification -> publish(notification.getParameter()),
+                        e -> log.error("Not listening for anime changes: {}", e.getMessage()));
+    }
+
+    /**
+     * Fails when the trigger notifies another channel than the one listened on, which would leave the feed silent.
+     */
+    private static Mono<Void> checkChannel(PostgresqlConnection connection, String channel) {
+        return connection.createStatement(TRIGGER_CHANNEL_QUERY)
+                .execute()
+                .flatMap(result -> result.map((row, metadata) -> row.get(0, String.class)))
+                .collectList()
+                .flatMap(channels -> channels.contains(channel)
+                        ? Mono.empty()
+                        : Mono.error(new IllegalArgumentException("anime.changes.channel is " + channel
+                                + " but the anime_changes trigger notifies " + channels)));
+    }
+
+    private static Mono<Void> listen(PostgresqlConnection connection, String channel) {
+        return connection.createStatement("LISTEN " + channel)
+                .execute()
+                .flatMap(result -> result.getRowsUpdated())
+                .then();
+    }
+
+    private void publish(String payload) {
+        try {
+            animeChangeFeed.publish(objectMapper.readValue(payload, AnimeChange.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring an anime change that could not be read: {}", payload);
+        }
+    }
+
+    private static PostgresqlConnectionFactory unwrapPostgres(Object connectionFactory) {
+        if (connectionFactory instanceof PostgresqlConnectionFactory) {
+            return (PostgresqlConnectionFactory) connectionFactory;
+        }
+        if (connectionFactory instanceof Wrapped) {
+            return unwrapPostgres(((Wrapped<?>) connectionFactory).unwrap());
+        }
+        return null;
+    }
+
+    @Override
+    public void destroy() {
+        if (listening != null) {
+            listening.dispose();
+        }
+    }
+}
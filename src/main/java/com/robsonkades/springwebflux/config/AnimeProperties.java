@@ -0,0 +1,141 @@
+package com.robsonkades.springwebflux.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("anime")
+public class AnimeProperties {
+
+    private final Pagination pagination = new Pagination();
+
+    private final Streaming streaming = new Streaming();
+
+    private final Batch batch = new Batch();
+
+    private final Cache cache = new Cache();
+
+    private final Search search = new Search();
+
+    private final Loader loader = new Loader();
+
+    private final Snapshot snapshot = new Snapshot();
+
+    private final Changes changes = new Changes();
+
+    @Data
+    public static class Pagination {
+
+        private int defaultLimit = 20;
+
+        private int maxLimit = 100;
+    }
+
+    @Data
+    public static class Streaming {
+
+        private int prefetch = 256;
+
+        private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DISCONNECT;
+
+        private Duration stallTimeout = Duration.ofSeconds(30);
+
+        private int bufferSize = 1024;
+    }
+
+    @Data
+    public static class Batch {
+
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Cache {
+
+        private long maximumSize = 10_000;
+
+        private Duration ttl = Duration.ofMinutes(5);
+
+        private Duration negativeTtl = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Search {
+
+        /**
+         * Answer searches from the in-process name index once it is loaded. The index only sees the writes of this
+         * instance, so deployments with several instances may prefer the pg_trgm query.
+         */
+        private boolean indexEnabled = true;
+    }
+
+    @Data
+    public static class Loader {
+
+        /**
+         * How long a lookup by id waits for others to share its query; zero queries every lookup on its own.
+         */
+        private Duration window = Duration.ofMillis(2);
+
+        /**
+         * Ids per query; a full batch is sent without waiting for the window.
+         */
+        private int maxSize = 100;
+    }
+
+    @Data
+    public static class Snapshot {
+
+        /**
+         * Animes kept as last known good for when the database is unavailable.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Listing pages kept as last known good, keyed by cursor and page size.
+         */
+        private long maximumPages = 1_000;
+    }
+
+    @Data
+    public static class Changes {
+
+        /**
+         * Channel the {@code anime_changes} trigger of schema.sql notifies, its argument; the listener checks they
+         * match when it connects and stays off when they do not.
+         */
+        private String channel = "anime_changes";
+
+        /**
+         * Changes kept for subscribers resuming with {@code Last-Event-ID}; one further behind is told to reload.
+         */
+        private int replaySize = 1024;
+
+        /**
+         * Interval of the comments that keep idle subscriptions from being closed by proxies.
+         */
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        private Duration minReconnectDelay = Duration.ofSeconds(1);
+
+        private Duration maxReconnectDelay = Duration.ofSeconds(30);
+    }
+
+    public enum SlowConsumerPolicy {
+        /**
+         * Keep the cursor open for as long as the consumer needs to request more rows.
+         */
+        WAIT,
+        /**
+         * Drain the cursor into a bounded buffer and drop the consumer when it overflows.
+         */
+        BUFFER,
+        /**
+         * Drop the consumer when no row could be written within the stall timeout.
+         */
+        DISCONNECT
+    }
+}
@@ -0,0 +1,39 @@
+package com.robsonkades.springwebflux.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("auth")
+public class AuthProperties {
+
+    private final CacheSpec userCache = new CacheSpec(10_000, Duration.ofSeconds(30));
+
+    private final CacheSpec credentialCache = new CacheSpec(10_000, Duration.ofMinutes(1));
+
+    private final Hashing hashing = new Hashing();
+
+    @Data
+    public static class CacheSpec {
+
+        private long maximumSize;
+
+        private Duration ttl;
+
+        public CacheSpec(long maximumSize, Duration ttl) {
+            this.maximumSize = maximumSize;
+            this.ttl = ttl;
+        }
+    }
+
+    @Data
+    public static class Hashing {
+
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        private int queueCapacity = 1_000;
+    }
+}
@@ -0,0 +1,43 @@
+package com.robsonkades.springwebflux.config;
+
+import reactor.blockhound.BlockHound;
+
+import org.springframework.core.env.Profiles;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Installs BlockHound with the blocking calls this application allows. Installing retransforms JDK classes, which
+ * breaks threads already waiting inside them, so it must happen once per JVM before any scheduler starts: from
+ * {@code main} for the {@code dev} profile, and from {@code BlockHoundExtension} ahead of every test. The
+ * instrumentation slows down every blocking-call site and is not wanted in production.
+ */
+public final class BlockHoundInstaller {
+
+    private static final Profiles BLOCKHOUND_PROFILES = Profiles.of("dev");
+
+    private BlockHoundInstaller() {
+    }
+
+    public static void install() {
+        BlockHound.install(builder -> builder
+                .allowBlockingCallsInside("java.io.RandomAccessFile", "readBytes")
+                // Message bundles, such as Spring Security's for a denied request, are read once and then cached
+                .allowBlockingCallsInside("java.util.ResourceBundle", "getBundle")
+                // Enqueueing a log event briefly takes the queue lock; the appender never waits for space
+                .allowBlockingCallsInside("ch.qos.logback.core.AsyncAppenderBase", "put"));
+    }
+
+    /**
+     * Installs BlockHound when {@code spring.profiles.active} on the command line, in a system property or in the
+     * environment includes {@code dev}. Profiles activated from application.yml are only known once the context
+     * starts, too late to install safely, and are ignored.
+     */
+    public static void installForProfiles(String... args) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        if (environment.acceptsProfiles(BLOCKHOUND_PROFILES)) {
+            install();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.robsonkades.springwebflux.config;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Answers {@code Accept-Encoding: br} with brotli, honouring {@code server.compression.mime-types} and
+ * {@code min-response-size}. Reactor Netty only negotiates gzip and deflate, and leaves a response alone once it
+ * carries a {@code Content-Encoding}. Streamed responses ({@code writeAndFlushWith}) are left to Netty, since
+ * brotli here compresses the whole body at once.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "server.compression", name = "enabled", havingValue = "true")
+public class BrotliCompressionWebFilter implements WebFilter {
+
+    private static final String BROTLI = "br";
+
+    /**
+     * Netty's default for brotli: the highest levels compress a few percent better for many times the CPU.
+     */
+    private static final int QUALITY = 4;
+
+    private final boolean available;
+
+    private final List<MediaType> mimeTypes;
+
+    private final long minResponseSize;
+
+    private final Encoder.Parameters parameters = new Encoder.Parameters().setQuality(QUALITY);
+
+    public BrotliCompressionWebFilter(ServerProperties serverProperties) {
+        // loads the native library here rather than on an event loop thread
+        this.available = Brotli4jLoader.isAvailable();
+        if (!available) {
+            log.info("Brotli is disabled, its native library did not load: {}",
+                    Brotli4jLoader.getUnavailabilityCause().toString());
+        }
+        Compression compression = serverProperties.getCompression();
+        this.mimeTypes = Arrays.stream(compression.getMimeTypes())
+                .map(MediaType::parseMediaType)
+                .collect(Collectors.toList());
+        this.minResponseSize = compression.getMinResponseSize().toBytes();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!available || !acceptsBrotli(exchange.getRequest().getHeaders())) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new BrotliResponse(exchange.getResponse())).build());
+    }
+
+    private static boolean acceptsBrotli(HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : StringUtils.tokenizeToStringArray(value, ",")) {
+                String[] parts = StringUtils.tokenizeToStringArray(coding, ";");
+                if (parts.length > 0 && BROTLI.equalsIgnoreCase(parts[0])) {
+                    return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
+    }
+
+    private class BrotliResponse extends ServerHttpResponseDecorator {
+
+        private BrotliResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCompressible()) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body).flatMap(buffer -> {
+                getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (buffer.readableByteCount() < minResponseSize) {
+                    return super.writeWith(Mono.just(buffer));
+                }
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                DataBufferUtils.release(buffer);
+                byte[] compressed = compress(bytes);
+                getHeaders().set(HttpHeaders.CONTENT_ENCODING, BROTLI);
+                getHeaders().setContentLength(compressed.length);
+                return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+            });
+        }
+
+        private boolean isCompressible() {
+            HttpHeaders headers = getHeaders();
+            MediaType contentType = headers.getContentType();
+            HttpStatus status = getStatusCode();
+            return contentType != null
+                    && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                    && status != HttpStatus.NO_CONTENT && status != HttpStatus.NOT_MODIFIED
+                    && mimeTypes.stream().anyMatch(mimeType -> mimeType.isCompatibleWith(contentType));
+        }
+
+        private byte[] compress(byte[] bytes) {
+            try {
+                return Encoder.compress(bytes, parameters);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.robsonkades.springwebflux.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+/**
+ * Adds {@code application/cbor} and {@code application/x-jackson-smile} next to JSON. Both mappers come from the
+ * Spring Boot {@link Jackson2ObjectMapperBuilder}, so {@code spring.jackson.*} settings apply to every format.
+ */
+@Configuration
+public class CodecConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    @Bean
+    public CodecCustomizer binaryCodecCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+        // the single-argument constructors fall back to the JSON mime types, which would shadow the JSON codecs
+        ObjectMapper cborMapper = objectMapperBuilder.getObject().factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = objectMapperBuilder.getObject().factory(new SmileFactory()).build();
+        Jackson2CborEncoder cborEncoder = new CollectingCborEncoder(cborMapper);
+        Jackson2CborDecoder cborDecoder = new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR);
+        Jackson2SmileEncoder smileEncoder = new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE);
+        Jackson2SmileDecoder smileDecoder = new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE);
+        return configurer -> {
+            configurer.customCodecs().registerWithDefaultConfig(cborEncoder);
+            configurer.customCodecs().registerWithDefaultConfig(cborDecoder);
+            // Smile is a default codec once jackson-dataformat-smile is present, but with a plain ObjectMapper
+            configurer.defaultCodecs().jackson2SmileEncoder(smileEncoder);
+            configurer.defaultCodecs().jackson2SmileDecoder(smileDecoder);
+        };
+    }
+
+    /**
+     * {@link Jackson2CborEncoder} only implements {@code encodeValue}, and the writers call {@code encode} even for a
+     * single value. A {@code Flux} is written as one CBOR array, like the JSON encoder does for non-streaming types.
+     */
+    private static class CollectingCborEncoder extends Jackson2CborEncoder {
+
+        private CollectingCborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, @Nullable MimeType mimeType,
+                                       @Nullable Map<String, Object> hints) {
+            if (inputStream instanceof Mono) {
+                return Mono.from(inputStream)
+                        .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                        .flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+                    .flux();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.robsonkades.springwebflux.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+
+@Data
+@ConfigurationProperties("concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Partitions in match order. A request counts against the first partition matching its method and path, and
+     * requests matching none are not limited.
+     */
+    private Map<String, Partition> partitions = new LinkedHashMap<>();
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Partition extends RouteProperties {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 4;
+
+        private int maxLimit = 200;
+
+        /**
+         * How far latency may rise above its long-term average before the limit shrinks.
+         */
+        private double tolerance = 1.5;
+
+        /**
+         * 503 sends clients to another instance, 429 asks them to back off.
+         */
+        private HttpStatus rejectionStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,121 @@
+package com.robsonkades.springwebflux.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.robsonkades.springwebflux.service.SingleFlight;
+import com.robsonkades.springwebflux.service.UserDetailService;
+
+/**
+ * Remembers successful username/password verifications for a short time so that repeated HTTP Basic
+ * requests skip BCrypt. Entries are keyed by an HMAC of the credentials with a per-process random key and
+ * are only honored while the stored password hash still matches the current {@code users} row, and the
+ * authentication is rebuilt from that row, so role changes apply as soon as the user cache sees them. Concurrent
+ * requests with the same credentials share one BCrypt verification.
+ */
+public class CredentialCacheAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final ReactiveAuthenticationManager delegate;
+
+    private final UserDetailService userDetailService;
+
+    private final Cache<String, Authentication> verified;
+
+    private final SingleFlight<String, Authentication> verifications;
+
+    private final ThreadLocal<Mac> mac;
+
+    public CredentialCacheAuthenticationManager(ReactiveAuthenticationManager delegate, UserDetailService userDetailService,
+                                                AuthProperties.CacheSpec cacheSpec, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.userDetailService = userDetailService;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSpec.getMaximumSize())
+                .expireAfterWrite(cacheSpec.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "credentials");
+        this.verifications = new SingleFlight<>("credentials", meterRegistry);
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        SecretKeySpec key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken) || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        return Mono.defer(() -> {
+            String username = authentication.getName();
+            String cacheKey = cacheKey(username, authentication.getCredentials().toString());
+            Authentication cached = verified.getIfPresent(cacheKey);
+            if (cached == null) {
+                return verify(authentication, cacheKey);
+            }
+            String verifiedPassword = ((UserDetails) cached.getPrincipal()).getPassword();
+            return userDetailService.findByUsername(username)
+                    .filter(user -> user.getPassword().equals(verifiedPassword))
+                    .map(CredentialCacheAuthenticationManager::authenticated)
+                    .switchIfEmpty(Mono.defer(() -> {
+                        verified.invalidate(cacheKey);
+                        return verify(authentication, cacheKey);
+                    }));
+        });
+    }
+
+    /**
+     * The authentication the delegate builds, from the current user and thus its current authorities.
+     */
+    private static Authentication authenticated(UserDetails user) {
+        return new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities());
+    }
+
+    private Mono<Authentication> verify(Authentication authentication, String cacheKey) {
+        return verifications.execute(cacheKey, key -> delegate.authenticate(authentication)
+                        .doOnNext(result -> {
+                            if (result.getPrincipal() instanceof UserDetails) {
+                                verified.put(key, result);
+                            }
+                        }))
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new AuthenticationServiceException("Password hashing capacity exhausted", e));
+    }
+
+    private String cacheKey(String username, String password) {
+        Mac instance = mac.get();
+        instance.update(username.getBytes(StandardCharsets.UTF_8));
+        instance.update((byte) 0);
+        return Base64.getEncoder().encodeToString(instance.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+}
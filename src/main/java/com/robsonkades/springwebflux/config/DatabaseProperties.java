@@ -0,0 +1,83 @@
+package com.robsonkades.springwebflux.config;
+
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("database")
+public class DatabaseProperties {
+
+    private final Warmup warmup = new Warmup();
+
+    private final Memory memory = new Memory();
+
+    private final Replicas replicas = new Replicas();
+
+    @Data
+    public static class Warmup {
+
+        private boolean enabled = true;
+
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Replicas {
+
+        /**
+         * R2DBC URLs of the read replicas, pooled like {@code spring.r2dbc.pool}. Without any, every query goes to
+         * the primary.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * Defaults to {@code spring.r2dbc.username}.
+         */
+        private String username;
+
+        /**
+         * Defaults to {@code spring.r2dbc.password}.
+         */
+        private String password;
+
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Replication lag beyond which a replica stops receiving reads until it catches up.
+         */
+        private Duration maxLag = Duration.ofSeconds(10);
+
+        /**
+         * How long the reads of a client go to the primary after it wrote, so it sees its writes; zero disables.
+         */
+        private Duration readYourWrites = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Memory {
+
+        /**
+         * Users loaded into the in-memory user repository of the {@code memory} profile.
+         */
+        private List<MemoryUser> users = new ArrayList<>();
+    }
+
+    @Data
+    public static class MemoryUser {
+
+        private String name;
+
+        private String username;
+
+        private String password;
+
+        private String authorities;
+    }
+}
@@ -0,0 +1,112 @@
+package com.robsonkades.springwebflux.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.robsonkades.springwebflux.deadline.Deadline;
+
+/**
+ * Bounds the statements of a request with a {@link Deadline} by setting {@code statement_timeout} to the time left
+ * when the connection is handed out, so Postgres cancels a query its caller stopped waiting for. The time left is
+ * rounded up to {@link #TIMEOUT_STEP_MILLIS}, and the {@code SET} is skipped when the connection already has that
+ * timeout, so requests on a route with a fixed timeout pay the extra round trip only once per connection; the
+ * reactive timeout of the request still applies exactly. Connections left with a timeout are reset to the server
+ * default before they serve a request without one; a request whose deadline already passed fails without taking a
+ * connection.
+ */
+public class DeadlineConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    static final long TIMEOUT_STEP_MILLIS = 100;
+
+    private final ConnectionFactory delegate;
+
+    /**
+     * Statement timeouts, in milliseconds, of the physical connections that currently have one of their own.
+     */
+    private final Map<Object, Long> appliedTimeouts = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public DeadlineConnectionFactory(ConnectionFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = Deadline.from(context).orElse(null);
+            if (deadline != null && deadline.isExpired()) {
+                return Mono.error(new R2dbcTimeoutException("Deadline exceeded before the query started"));
+            }
+            return Mono.<Connection>from(delegate.create())
+                    .flatMap(connection -> applyDeadline(connection, deadline)
+                            .thenReturn(connection)
+                            .onErrorResume(e -> Mono.from(connection.close()).then(Mono.error(e))));
+        });
+    }
+
+    private Mono<Void> applyDeadline(Connection connection, Deadline deadline) {
+        Object physical = unwrap(connection);
+        if (deadline == null) {
+            return appliedTimeouts.remove(physical) != null
+                    ? execute(connection, "SET statement_timeout TO DEFAULT")
+                    : Mono.empty();
+        }
+        long remaining = Math.max(1, deadline.remaining().toMillis());
+        long millis = (remaining + TIMEOUT_STEP_MILLIS - 1) / TIMEOUT_STEP_MILLIS * TIMEOUT_STEP_MILLIS;
+        Long applied = appliedTimeouts.get(physical);
+        if (applied != null && applied == millis) {
+            return Mono.empty();
+        }
+        appliedTimeouts.remove(physical);
+        return execute(connection, "SET statement_timeout = " + millis)
+                .doOnSuccess(done -> appliedTimeouts.put(physical, millis));
+    }
+
+    private static Mono<Void> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(result -> result.getRowsUpdated())
+                .then();
+    }
+
+    private static Object unwrap(Object connection) {
+        while (connection instanceof Wrapped) {
+            Object unwrapped = ((Wrapped<?>) connection).unwrap();
+            if (unwrapped == null || unwrapped == connection) {
+                break;
+            }
+            connection = unwrapped;
+        }
+        return connection;
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable && ((Disposable) delegate).isDisposed();
+    }
+}
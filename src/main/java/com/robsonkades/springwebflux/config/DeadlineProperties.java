@@ -0,0 +1,39 @@
+package com.robsonkades.springwebflux.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("deadline")
+public class DeadlineProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header in which clients pass their timeout, in milliseconds.
+     */
+    private String header = "X-Request-Timeout";
+
+    /**
+     * Upper bound for the timeouts clients ask for.
+     */
+    private Duration maxTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Default timeouts in match order. Requests matching none of them only get a deadline from the header.
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Route extends RouteProperties {
+
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+}
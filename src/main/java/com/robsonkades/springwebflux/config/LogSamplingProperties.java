@@ -0,0 +1,45 @@
+package com.robsonkades.springwebflux.config;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("log-sampling")
+public class LogSamplingProperties {
+
+    private final Channel access = new Channel(0.01, Duration.ofSeconds(1));
+
+    private final Channel query = new Channel(0, Duration.ofMillis(200));
+
+    @Data
+    @NoArgsConstructor
+    public static class Channel {
+
+        /**
+         * Fraction of the events below the slow threshold that are logged, from 0 to 1.
+         */
+        private double rate;
+
+        /**
+         * Events taking at least this long are always logged, at WARN.
+         */
+        private Duration slowThreshold;
+
+        /**
+         * Rates overriding {@link #rate} for single endpoints ({@code GET /animes/{id}}) or repository methods
+         * ({@code AnimeRepository.findById}).
+         */
+        private Map<String, Double> rates = new LinkedHashMap<>();
+
+        public Channel(double rate, Duration slowThreshold) {
+            this.rate = rate;
+            this.slowThreshold = slowThreshold;
+        }
+    }
+}
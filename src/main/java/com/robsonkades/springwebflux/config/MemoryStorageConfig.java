@@ -0,0 +1,50 @@
+package com.robsonkades.springwebflux.config;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+
+@Configuration(proxyBeanMethods = false)
+@Profile("memory")
+public class MemoryStorageConfig {
+
+    /**
+     * The in-memory repositories apply every write atomically on their own, so transactions are accepted but there
+     * is nothing to commit or roll back.
+     */
+    @Bean
+    public ReactiveTransactionManager transactionManager() {
+        return new AbstractReactiveTransactionManager() {
+
+            @Override
+            protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+                return new Object();
+            }
+
+            @Override
+            protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+                                         TransactionDefinition definition) {
+                return Mono.empty();
+            }
+
+            @Override
+            protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+                                          GenericReactiveTransaction status) {
+                return Mono.empty();
+            }
+
+            @Override
+            protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+                                            GenericReactiveTransaction status) {
+                return Mono.empty();
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.robsonkades.springwebflux.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Records how long callers wait for {@link ConnectionFactory#create()} as the {@code r2dbc.pool.acquire} timer, whose
+ * histogram is configured with the others under {@code management.metrics.distribution}.
+ * Pool gauges (acquired, idle, pending) come from Spring Boot, which unwraps this decorator to find the pool.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private final ConnectionFactory delegate;
+
+    private final String name;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public MeteredConnectionFactory(ConnectionFactory delegate, String name, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.delegate = delegate;
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return Mono.<Connection>from(delegate.create())
+                    .doOnEach(signal -> {
+                        if (signal.isOnNext() || signal.isOnError()) {
+                            record(sample, recorded, signal.isOnNext() ? "success" : "error");
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            record(sample, recorded, "cancelled");
+                        }
+                    });
+        });
+    }
+
+    private void record(Timer.Sample sample, AtomicBoolean recorded, String outcome) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null && recorded.compareAndSet(false, true)) {
+            sample.stop(Timer.builder("r2dbc.pool.acquire")
+                    .description("Time spent waiting for a connection")
+                    .tag("name", name)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable && ((Disposable) delegate).isDisposed();
+    }
+}
@@ -0,0 +1,37 @@
+package com.robsonkades.springwebflux.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import com.robsonkades.springwebflux.logging.LogSampler;
+import com.robsonkades.springwebflux.logging.QueryLogListener;
+
+/**
+ * Attaches the {@link QueryLogListener} to every Spring Data repository, the same way Spring Boot attaches its
+ * {@code spring.data.repository.invocations} metrics listener.
+ */
+@Configuration
+public class QueryLogConfig {
+
+    @Bean
+    public QueryLogListener queryLogListener(LogSampler logSampler, LogSamplingProperties logSamplingProperties) {
+        return new QueryLogListener(logSampler, logSamplingProperties);
+    }
+
+    @Bean
+    public static BeanPostProcessor queryLogListenerBeanPostProcessor(ObjectProvider<QueryLogListener> queryLogListener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                            repositoryFactory -> repositoryFactory.addInvocationListener(queryLogListener.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package com.robsonkades.springwebflux.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class R2dbcPoolConfig {
+
+    /**
+     * Applies request deadlines on top of the acquire timer, so setting {@code statement_timeout} is not counted as
+     * waiting for the pool. With {@code database.replicas.urls}, the primary and a pool per replica, decorated
+     * alike, are put behind a {@link ReplicaRoutingConnectionFactory}.
+     */
+    @Bean
+    public static BeanPostProcessor connectionFactoryDecorators(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                ObjectProvider<DatabaseProperties> databaseProperties,
+                                                                ObjectProvider<R2dbcProperties> r2dbcProperties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ConnectionFactory) || bean instanceof DeadlineConnectionFactory
+                        || bean instanceof ReplicaRoutingConnectionFactory) {
+                    return bean;
+                }
+                ConnectionFactory primary = decorate((ConnectionFactory) bean, beanName, meterRegistry);
+                DatabaseProperties.Replicas replicas = databaseProperties.getObject().getReplicas();
+                if (replicas.getUrls().isEmpty()) {
+                    return primary;
+                }
+                R2dbcProperties r2dbc = r2dbcProperties.getObject();
+                Map<String, ConnectionFactory> replicaFactories = new LinkedHashMap<>();
+                for (int i = 0; i < replicas.getUrls().size(); i++) {
+                    String name = "replica-" + i;
+                    ConnectionFactory pool = replicaPool(name, replicas.getUrls().get(i), replicas, r2dbc);
+                    replicaFactories.put(name, decorate(pool, name, meterRegistry));
+                }
+                return new ReplicaRoutingConnectionFactory(primary, replicaFactories, replicas);
+            }
+        };
+    }
+
+    private static ConnectionFactory decorate(ConnectionFactory connectionFactory, String name,
+                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return new DeadlineConnectionFactory(new MeteredConnectionFactory(connectionFactory, name, meterRegistry));
+    }
+
+    private static ConnectionPool replicaPool(String name, String url, DatabaseProperties.Replicas replicas,
+                                              R2dbcProperties r2dbc) {
+        ConnectionFactory replica = ConnectionFactoryBuilder.withUrl(url)
+                .username(replicas.getUsername() != null ? replicas.getUsername() : r2dbc.getUsername())
+                .password(replicas.getPassword() != null ? replicas.getPassword() : r2dbc.getPassword())
+                .build();
+        R2dbcProperties.Pool pool = r2dbc.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(replica)
+                .name(name)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .maxAcquireTime(pool.getMaxAcquireTime())
+                .maxCreateConnectionTime(pool.getMaxCreateConnectionTime())
+                .validationDepth(pool.getValidationDepth());
+        if (StringUtils.hasText(pool.getValidationQuery())) {
+            configuration.validationQuery(pool.getValidationQuery());
+        }
+        return new ConnectionPool(configuration.build());
+    }
+
+    /**
+     * Pool gauges of the replica pools, which Spring Boot does not find as they are not beans. Spring Boot covers the
+     * primary pool.
+     */
+    @Bean
+    public MeterBinder replicaConnectionPoolMetrics(ObjectProvider<ConnectionFactory> connectionFactory) {
+        return registry -> replicaPools(connectionFactory.getIfAvailable())
+                .forEach((name, pool) -> new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(registry));
+    }
+
+    /**
+     * Opens the initial connections of the primary and replica pools before the application is marked ready, so the
+     * first requests after a deploy do not pay for connection setup.
+     */
+    @Bean
+    public ApplicationRunner connectionPoolWarmup(ObjectProvider<ConnectionFactory> connectionFactory,
+                                                  DatabaseProperties databaseProperties) {
+        return args -> {
+            DatabaseProperties.Warmup warmup = databaseProperties.getWarmup();
+            ConnectionFactory bean = connectionFactory.getIfAvailable();
+            Map<String, ConnectionPool> pools = new LinkedHashMap<>();
+            ConnectionPool primary = unwrapPool(bean);
+            if (primary != null) {
+                pools.put("primary", primary);
+            }
+            pools.putAll(replicaPools(bean));
+            if (!warmup.isEnabled() || pools.isEmpty()) {
+                return;
+            }
+            try {
+                Flux.fromIterable(pools.entrySet())
+                        .flatMap(pool -> pool.getValue().warmup()
+                                .doOnNext(connections -> log.info("Warmed up {} {} database connections",
+                                        connections, pool.getKey()))
+                                .onErrorResume(e -> {
+                                    log.warn("Could not warm up the {} database connection pool: {}",
+                                            pool.getKey(), e.getMessage());
+                                    return Mono.empty();
+                                }))
+                        .then()
+                        .block(warmup.getTimeout());
+            } catch (RuntimeException e) {
+                log.warn("Could not warm up the database connection pools: {}", e.getMessage());
+            }
+        };
+    }
+
+    private static Map<String, ConnectionPool> replicaPools(Object connectionFactory) {
+        Map<String, ConnectionPool> pools = new LinkedHashMap<>();
+        while (connectionFactory instanceof Wrapped) {
+            if (connectionFactory instanceof ReplicaRoutingConnectionFactory) {
+                ((ReplicaRoutingConnectionFactory) connectionFactory).getReplicas().forEach((name, replica) -> {
+                    ConnectionPool pool = unwrapPool(replica);
+                    if (pool != null) {
+                        pools.put(name, pool);
+                    }
+                });
+                break;
+            }
+            connectionFactory = ((Wrapped<?>) connectionFactory).unwrap();
+        }
+        return pools;
+    }
+
+    private static ConnectionPool unwrapPool(Object connectionFactory) {
+        if (connectionFactory instanceof ConnectionPool) {
+            return (ConnectionPool) connectionFactory;
+        }
+        if (connectionFactory instanceof Wrapped) {
+            return unwrapPool(((Wrapped<?>) connectionFactory).unwrap());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,184 @@
+package com.robsonkades.springwebflux.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.Wrapped;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.robsonkades.springwebflux.routing.DatabaseRouting;
+
+/**
+ * Hands out replica connections, round robin, to queries that {@link DatabaseRouting} allows on a replica, and primary
+ * connections to everything else. A replica that fails to hand out a connection is ejected and the query falls back
+ * to the primary; a periodic health check ejects replicas lagging more than {@code database.replicas.max-lag} and
+ * readmits those that answer again. With every replica ejected, reads go to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    /**
+     * Seconds the replica is behind; zero on a primary or a replica that replayed everything it received, as the
+     * last replayed transaction of an idle primary grows old without any lag.
+     */
+    static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END::float8";
+
+    private final ConnectionFactory primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final Duration healthCheckTimeout;
+
+    private final double maxLagSeconds;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Disposable healthChecks;
+
+    public ReplicaRoutingConnectionFactory(ConnectionFactory primary, Map<String, ConnectionFactory> replicas,
+                                           DatabaseProperties.Replicas properties) {
+        this.primary = primary;
+        replicas.forEach((name, factory) -> this.replicas.add(new Replica(name, factory)));
+        this.healthCheckTimeout = properties.getHealthCheckTimeout();
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+        this.healthChecks = Flux.interval(properties.getHealthCheckInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(this.replicas).flatMap(this::check))
+                .subscribe();
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            Replica replica = DatabaseRouting.isReplicaAllowed(context) ? nextHealthy() : null;
+            if (replica == null) {
+                return Mono.from(primary.create());
+            }
+            return Mono.<Connection>from(replica.factory.create())
+                    .onErrorResume(ReplicaRoutingConnectionFactory::isReplicaFailure, e -> {
+                        replica.eject(e.toString());
+                        return Mono.from(primary.create());
+                    });
+        });
+    }
+
+    private Replica nextHealthy() {
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Timeouts say the pool is busy or the request out of time, not that the replica is down.
+     */
+    private static boolean isReplicaFailure(Throwable e) {
+        return !(e instanceof R2dbcTimeoutException) && !(e instanceof TimeoutException);
+    }
+
+    private Mono<Void> check(Replica replica) {
+        return Flux.usingWhen(replica.factory.create(),
+                        connection -> Flux.from(connection.createStatement(LAG_QUERY).execute())
+                                .flatMap(result -> result.map((row, metadata) -> {
+                                    Double lag = row.get(0, Double.class);
+                                    return lag == null ? 0.0 : lag;
+                                })),
+                        Connection::close)
+                .next()
+                .timeout(healthCheckTimeout)
+                .doOnNext(lag -> {
+                    if (lag > maxLagSeconds) {
+                        replica.eject(String.format("%.1fs behind", lag));
+                    } else {
+                        replica.readmit();
+                    }
+                })
+                .onErrorResume(e -> Mono.fromRunnable(() -> replica.eject(e.toString())))
+                .then();
+    }
+
+    /**
+     * The connection factories of the replicas by name, healthy or not.
+     */
+    Map<String, ConnectionFactory> getReplicas() {
+        Map<String, ConnectionFactory> factories = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            factories.put(replica.name, replica.factory);
+        }
+        return factories;
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+
+    @Override
+    public void dispose() {
+        healthChecks.dispose();
+        for (Replica replica : replicas) {
+            if (replica.factory instanceof Disposable) {
+                ((Disposable) replica.factory).dispose();
+            }
+        }
+        if (primary instanceof Disposable) {
+            ((Disposable) primary).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return healthChecks.isDisposed();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final ConnectionFactory factory;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, ConnectionFactory factory) {
+            this.name = name;
+            this.factory = factory;
+        }
+
+        private void eject(String reason) {
+            if (healthy) {
+                healthy = false;
+                log.warn("Ejected read replica {}: {}", name, reason);
+            }
+        }
+
+        private void readmit() {
+            if (!healthy) {
+                healthy = true;
+                log.info("Readmitted read replica {}", name);
+            }
+        }
+    }
+}
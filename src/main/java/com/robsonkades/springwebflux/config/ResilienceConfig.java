@@ -0,0 +1,38 @@
+package com.robsonkades.springwebflux.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class ResilienceConfig {
+
+    /**
+     * Guards the anime queries, configured by {@code resilience4j.circuitbreaker.instances.anime}. Besides the
+     * {@code resilience4j.circuitbreaker.*} meters and the {@code circuitbreakerevents} endpoint, every state
+     * transition is logged and counted in {@code circuitbreaker.transitions} (tags: name, from, to).
+     */
+    @Bean
+    public CircuitBreaker animeCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry,
+                                              MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("anime");
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Circuit breaker {} went from {} to {}", event.getCircuitBreakerName(),
+                    transition.getFromState(), transition.getToState());
+            Counter.builder("circuitbreaker.transitions")
+                    .tag("name", event.getCircuitBreakerName())
+                    .tag("from", transition.getFromState().name())
+                    .tag("to", transition.getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+        });
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,42 @@
+package com.robsonkades.springwebflux.config;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Matches requests against {@link RouteProperties} before any handler is chosen, for web filters that need to know
+ * the route ahead of the handler mapping.
+ */
+public class RouteMatcher {
+
+    private final Set<HttpMethod> methods;
+
+    private final List<PathPattern> paths;
+
+    public RouteMatcher(RouteProperties routeProperties) {
+        this.methods = routeProperties.getMethods();
+        this.paths = routeProperties.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .collect(Collectors.toList());
+    }
+
+    public boolean matches(ServerHttpRequest request) {
+        if (!methods.isEmpty() && !methods.contains(request.getMethod())) {
+            return false;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
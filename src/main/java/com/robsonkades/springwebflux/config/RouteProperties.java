@@ -0,0 +1,27 @@
+package com.robsonkades.springwebflux.config;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Requests a setting applies to, matched by {@link RouteMatcher}.
+ */
+@Data
+public class RouteProperties {
+
+    /**
+     * Methods of the route; empty matches every method.
+     */
+    private Set<HttpMethod> methods = new LinkedHashSet<>();
+
+    /**
+     * Path patterns of the route, as in {@code @RequestMapping}.
+     */
+    private List<String> paths = new ArrayList<>(List.of("/**"));
+}
@@ -1,7 +1,17 @@
 package com.robsonkades.springwebflux.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
@@ -30,7 +40,10 @@ public class SecurityConfig {
                     .pathMatchers(HttpMethod.PUT, "/animes/**").hasRole("ADMIN")
                     .pathMatchers(HttpMethod.DELETE, "/animes/**").hasRole("ADMIN")
                     .pathMatchers(HttpMethod.GET, "/animes/**").hasRole("USER")
-                    .pathMatchers("/webjars/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
+                    .pathMatchers(HttpMethod.POST, "/actuator/**").hasRole("ADMIN")
+                    .pathMatchers(HttpMethod.DELETE, "/actuator/**").hasRole("ADMIN")
+                    .pathMatchers("/webjars/**", "/v3/api-docs/**", "/openapi.json", "/swagger-ui.html").permitAll()
+                    .pathMatchers(HttpMethod.GET, "/actuator/health/**").permitAll()
                 .anyExchange().authenticated()
                 .and()
                     .formLogin()
@@ -42,8 +55,24 @@ public class SecurityConfig {
     }
 
     @Bean
-    public ReactiveAuthenticationManager reactiveAuthenticationManager(UserDetailService userDetailService) {
-        return new UserDetailsRepositoryReactiveAuthenticationManager(userDetailService);
+    public ReactiveAuthenticationManager reactiveAuthenticationManager(UserDetailService userDetailService,
+                                                                       Scheduler passwordHashingScheduler,
+                                                                       AuthProperties authProperties,
+                                                                       MeterRegistry meterRegistry) {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailService);
+        authenticationManager.setScheduler(passwordHashingScheduler);
+        return new CredentialCacheAuthenticationManager(authenticationManager, userDetailService,
+                authProperties.getCredentialCache(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordHashingScheduler(AuthProperties authProperties, MeterRegistry meterRegistry) {
+        AuthProperties.Hashing hashing = authProperties.getHashing();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(hashing.getThreads(), hashing.getThreads(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(hashing.getQueueCapacity()),
+                new CustomizableThreadFactory("password-hashing-"));
+        return Schedulers.fromExecutorService(ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing"),
+                "password-hashing");
     }
 //    @Bean
 //    public MapReactiveUserDetailsService mapReactiveUserDetailsService() {
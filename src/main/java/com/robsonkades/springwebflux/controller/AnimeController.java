@@ -12,8 +12,14 @@ import reactor.core.publisher.Mono;
 import javax.validation.Valid;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,11 +27,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.robsonkades.springwebflux.changes.AnimeChangeFeed;
+import com.robsonkades.springwebflux.config.CodecConfig;
 import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChange;
+import com.robsonkades.springwebflux.domain.AnimeChunkResult;
+import com.robsonkades.springwebflux.domain.AnimeLookup;
 import com.robsonkades.springwebflux.service.AnimeService;
 
 @RequiredArgsConstructor
@@ -39,48 +52,176 @@ import com.robsonkades.springwebflux.service.AnimeService;
 )
 public class AnimeController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AnimeService animeService;
 
-    @GetMapping
-    @ResponseStatus(HttpStatus.OK)
+    private final AnimeChangeFeed animeChangeFeed;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            CodecConfig.APPLICATION_SMILE_VALUE})
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
-    public Flux<Anime> listAll() {
-        return animeService.findAll();
+    public Mono<ResponseEntity<List<Anime>>> listAll(@RequestParam(name = "after", required = false) Integer after,
+                                                     @RequestParam(name = "limit", required = false) Integer limit) {
+        return animeService.findPage(after, limit)
+                .map(page -> {
+                    // Spring answers If-None-Match with 304 from this ETag before the page is serialized
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(pageETag(page.getContent()));
+                    if (page.getNext() != null) {
+                        response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNext()));
+                    }
+                    return response.body(page.getContent());
+                });
     }
 
-    @GetMapping(path = "{id}")
-    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(params = "ids",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE})
+    @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
+    public Mono<AnimeLookup> findAllById(@RequestParam(name = "ids") List<Integer> ids) {
+        return animeService.findAllById(ids);
+    }
+
+    @GetMapping(path = "stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
+    public Flux<Anime> stream() {
+        return animeService.streamAll();
+    }
+
+    /**
+     * Inserts, updates and deletes as server-sent events, for caches that would otherwise poll the listing. On a
+     * {@code reset} event the subscriber missed changes and should reload what it holds.
+     */
+    @GetMapping(path = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
+    public Flux<ServerSentEvent<AnimeChange>> changes(
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return animeChangeFeed.subscribe(lastEventId);
+    }
+
+    @GetMapping(path = "search",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE})
+    @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
+    public Flux<Anime> search(@RequestParam(name = "q") String query,
+                              @RequestParam(name = "limit", required = false) Integer limit) {
+        return animeService.search(query, limit);
+    }
+
+    @GetMapping(path = "{id}",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE})
     @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
-    public Mono<Anime> findById(@PathVariable("id") Integer id) {
-        return animeService.findById(id);
+    public Mono<ResponseEntity<Anime>> findById(@PathVariable("id") Integer id, @RequestHeader HttpHeaders headers) {
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (ifNoneMatch.isEmpty()) {
+            return animeService.findById(id).map(AnimeController::withETag);
+        }
+        return animeService.findVersion(id)
+                .flatMap(version -> matches(ifNoneMatch, version)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(version)).<Anime>build())
+                        : animeService.findById(id).map(AnimeController::withETag));
     }
 
-    @PostMapping
+    @PostMapping(
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE})
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
     public Mono<Anime> create(@Valid @RequestBody Anime anime) {
-        return animeService.save(anime);
+        return animeService.save(anime.withVersion(null));
     }
 
-    @PostMapping("batch")
+    @PostMapping(path = "batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE})
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
     public Flux<Anime> batch(@RequestBody List<Anime> anime) {
         return animeService.saveBatch(anime);
     }
 
-    @PutMapping(path = "{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PostMapping(path = "batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
+    public Flux<AnimeChunkResult> ingest(@RequestBody Flux<Anime> anime) {
+        return animeService.ingest(anime);
+    }
+
+    @PutMapping(path = "{id}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                    CodecConfig.APPLICATION_SMILE_VALUE})
     @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
-    public Mono<Void> update(@PathVariable() Integer id, @Valid @RequestBody Anime anime) {
-        return animeService.update(anime.withId(id));
+    public Mono<ResponseEntity<Void>> update(@PathVariable() Integer id, @Valid @RequestBody Anime anime,
+                                             @RequestHeader HttpHeaders headers) {
+        return animeService.update(anime.withId(id), expectedVersions(headers))
+                .map(updated -> ResponseEntity.noContent().eTag(eTag(updated.getVersion())).build());
     }
 
     @DeleteMapping(path = "{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(tags = {"anime"}, security = @SecurityRequirement(name = "Basic authentication"))
-    public Mono<Void> delete(@PathVariable() Integer id) {
-        return animeService.delete(id);
+    public Mono<Void> delete(@PathVariable() Integer id, @RequestHeader HttpHeaders headers) {
+        return animeService.delete(id, expectedVersions(headers));
+    }
+
+    private static ResponseEntity<Anime> withETag(Anime anime) {
+        return ResponseEntity.ok().eTag(eTag(anime.getVersion())).body(anime);
+    }
+
+    private static String eTag(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Weak ETag of a page: changes whenever an anime of the page is added, removed or updated.
+     */
+    private static String pageETag(List<Anime> animes) {
+        long hash = 1125899906842597L;
+        for (Anime anime : animes) {
+            hash = 31 * hash + Objects.hashCode(anime.getId());
+            hash = 31 * hash + Objects.hashCode(anime.getVersion());
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, so {@code W/"3"} matches version 3 as well.
+     */
+    private static boolean matches(List<String> eTags, Integer version) {
+        String current = eTag(version);
+        return eTags.stream().anyMatch(eTag -> "*".equals(eTag) || current.equals(eTag.startsWith("W/") ? eTag.substring(2) : eTag));
+    }
+
+    /**
+     * Versions accepted by If-Match: {@code null} when the request is unconditional, empty when none of its tags can
+     * match, as If-Match only accepts strong tags.
+     */
+    private static List<Integer> expectedVersions(HttpHeaders headers) {
+        List<String> ifMatch = headers.getIfMatch();
+        if (ifMatch.isEmpty() || ifMatch.contains("*")) {
+            return null;
+        }
+        return ifMatch.stream()
+                .map(AnimeController::version)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static Integer version(String eTag) {
+        if (eTag.length() < 3 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.robsonkades.springwebflux.deadline;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The point in time by which a request has to be answered, carried in the Reactor {@code Context} under
+ * {@link #CONTEXT_KEY} from {@link DeadlineWebFilter} down to the connection factory.
+ */
+public final class Deadline {
+
+    public static final Class<Deadline> CONTEXT_KEY = Deadline.class;
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<Deadline> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    /**
+     * Reports the errors of {@code source} that arrive once the deadline in its context has passed, a
+     * {@code statement_timeout} cancel or a connection refused for lack of time, as a
+     * {@link DeadlineExceededException}.
+     */
+    public static <T> Mono<T> classifyErrors(Mono<T> source) {
+        return Mono.deferContextual(context -> source.onErrorMap(e -> isExceeded(context, e),
+                DeadlineExceededException::new));
+    }
+
+    public static <T> Flux<T> classifyErrors(Flux<T> source) {
+        return Flux.deferContextual(context -> source.onErrorMap(e -> isExceeded(context, e),
+                DeadlineExceededException::new));
+    }
+
+    private static boolean isExceeded(ContextView context, Throwable e) {
+        return !(e instanceof DeadlineExceededException) && from(context).map(Deadline::isExpired).orElse(false);
+    }
+
+    /**
+     * The time left, zero once the deadline has passed.
+     */
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
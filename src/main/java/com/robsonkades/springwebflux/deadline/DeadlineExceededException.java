@@ -0,0 +1,18 @@
+package com.robsonkades.springwebflux.deadline;
+
+/**
+ * A query that failed because its request ran out of time, whatever the driver reported: the error says nothing
+ * about the health of the database, so the circuit breaker ignores it and no stale snapshot stands in for it. Carries
+ * no stack trace of its own, the cause has the one that matters.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(Throwable cause) {
+        super("Deadline exceeded", cause);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,87 @@
+package com.robsonkades.springwebflux.deadline;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.robsonkades.springwebflux.config.DeadlineProperties;
+import com.robsonkades.springwebflux.config.RouteMatcher;
+import com.robsonkades.springwebflux.exception.StatusException;
+
+/**
+ * Gives every request a {@link Deadline}, from the timeout header capped at {@code deadline.max-timeout} or else
+ * from the first matching route of {@code deadline.routes}, and answers 504 once it passes. The timeout cancels the
+ * whole chain, so the query behind it is cancelled and its connection released, or for a query shared with other
+ * requests once none of them waits for it any more; the connection factory also hands the time left to Postgres as
+ * {@code statement_timeout}, so the server stops working on it too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "deadline", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineWebFilter implements WebFilter {
+
+    private final String header;
+
+    private final Duration maxTimeout;
+
+    private final List<Map.Entry<RouteMatcher, Duration>> routes;
+
+    public DeadlineWebFilter(DeadlineProperties deadlineProperties) {
+        this.header = deadlineProperties.getHeader();
+        this.maxTimeout = deadlineProperties.getMaxTimeout();
+        this.routes = deadlineProperties.getRoutes().values().stream()
+                .map(route -> Map.entry(new RouteMatcher(route), route.getTimeout()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Duration timeout;
+        try {
+            timeout = timeout(exchange.getRequest());
+        } catch (NumberFormatException e) {
+            return Mono.error(new StatusException(HttpStatus.BAD_REQUEST, "Invalid " + header));
+        }
+        if (timeout == null) {
+            return chain.filter(exchange);
+        }
+        Deadline deadline = Deadline.after(timeout);
+        return chain.filter(exchange)
+                .timeout(timeout)
+                .onErrorMap(e -> deadline.isExpired() && !(e instanceof ResponseStatusException),
+                        e -> new StatusException(HttpStatus.GATEWAY_TIMEOUT, "Deadline exceeded", e))
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline));
+    }
+
+    private Duration timeout(ServerHttpRequest request) {
+        String value = request.getHeaders().getFirst(header);
+        if (value != null) {
+            long millis = Long.parseLong(value.trim());
+            if (millis <= 0) {
+                throw new NumberFormatException(value);
+            }
+            Duration timeout = Duration.ofMillis(millis);
+            return timeout.compareTo(maxTimeout) > 0 ? maxTimeout : timeout;
+        }
+        for (Map.Entry<RouteMatcher, Duration> route : routes) {
+            if (route.getKey().matches(request)) {
+                return route.getValue();
+            }
+        }
+        return null;
+    }
+}
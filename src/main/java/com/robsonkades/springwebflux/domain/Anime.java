@@ -9,6 +9,7 @@ import lombok.With;
 import javax.validation.constraints.NotBlank;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 @Data
@@ -22,4 +23,6 @@ public class Anime {
     private Integer id;
     @NotBlank
     private String name;
+    @Version
+    private Integer version;
 }
@@ -0,0 +1,33 @@
+package com.robsonkades.springwebflux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row change of the anime table, as published by its {@code anime_changes} trigger. A delete carries the row as it
+ * was before.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeChange {
+
+    private Type type;
+
+    private Integer id;
+
+    private String name;
+
+    private Integer version;
+
+    public static AnimeChange of(Type type, Anime anime) {
+        return new AnimeChange(type, anime.getId(), anime.getName(), anime.getVersion());
+    }
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+}
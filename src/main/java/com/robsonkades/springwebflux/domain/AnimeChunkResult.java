@@ -0,0 +1,35 @@
+package com.robsonkades.springwebflux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeChunkResult {
+
+    private long chunk;
+
+    private Status status;
+
+    private List<Integer> ids;
+
+    private String error;
+
+    public static AnimeChunkResult committed(long chunk, List<Integer> ids) {
+        return new AnimeChunkResult(chunk, Status.COMMITTED, ids, null);
+    }
+
+    public static AnimeChunkResult rejected(long chunk, String error) {
+        return new AnimeChunkResult(chunk, Status.REJECTED, Collections.emptyList(), error);
+    }
+
+    public enum Status {
+        COMMITTED,
+        REJECTED
+    }
+}
@@ -0,0 +1,17 @@
+package com.robsonkades.springwebflux.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnimeLookup {
+
+    private List<Anime> content;
+
+    private List<Integer> missing;
+}
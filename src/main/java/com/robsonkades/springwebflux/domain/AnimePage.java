@@ -0,0 +1,13 @@
+package com.robsonkades.springwebflux.domain;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class AnimePage {
+
+    List<Anime> content;
+
+    Integer next;
+}
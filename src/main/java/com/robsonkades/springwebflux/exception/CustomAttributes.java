@@ -1,9 +1,12 @@
 package com.robsonkades.springwebflux.exception;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
 import java.util.Map;
 
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.server.ResponseStatusException;
@@ -18,7 +21,12 @@ public class CustomAttributes extends DefaultErrorAttributes {
         if (throwable instanceof ResponseStatusException) {
             ResponseStatusException ex = (ResponseStatusException) throwable;
             errorAttributes.put("message", ex.getMessage());
-            errorAttributes.put("detail", "This is an error");
+            errorAttributes.put("detail", ex.getReason());
+        } else if (throwable instanceof CallNotPermittedException) {
+            // the database is known to be down, tell the client to come back rather than report a bug
+            errorAttributes.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+            errorAttributes.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+            errorAttributes.put("message", throwable.getMessage());
         }
         return errorAttributes;
     }
@@ -1,18 +1,24 @@
 package com.robsonkades.springwebflux.exception;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import reactor.core.publisher.Mono;
 
 import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.autoconfigure.web.WebProperties;
 import org.springframework.boot.autoconfigure.web.reactive.error.AbstractErrorWebExceptionHandler;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.RequestPredicates;
@@ -20,15 +26,63 @@ import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 
+/**
+ * Answers expected errors, a {@link ResponseStatusException} or a fail-fast of the circuit breaker, with a
+ * precomputed RFC 7807 body from {@link ProblemBodies}. Other errors, and every error whose stack trace is included
+ * per {@code server.error.include-stacktrace}, go through the {@link ErrorAttributes}.
+ */
 @Order(-2)
 @Component
 public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
 
+    private final ErrorAttributes errorAttributes;
+
+    private final ProblemBodies problemBodies;
+
+    private final ErrorProperties.IncludeAttribute includeStacktrace;
+
     public GlobalExceptionHandler(ErrorAttributes errorAttributes, WebProperties webproperties,
-                                  ApplicationContext applicationContext, ServerCodecConfigurer configurer) {
+                                  ServerProperties serverProperties, ApplicationContext applicationContext,
+                                  ServerCodecConfigurer configurer, ProblemBodies problemBodies) {
         super(errorAttributes, webproperties.getResources(), applicationContext);
         this.setMessageWriters(configurer.getWriters());
+        this.errorAttributes = errorAttributes;
+        this.problemBodies = problemBodies;
+        this.includeStacktrace = serverProperties.getError().getIncludeStacktrace();
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable throwable) {
+        HttpStatus status = expectedStatus(throwable);
+        ServerHttpResponse response = exchange.getResponse();
+        if (status == null || response.isCommitted() || includeStackTrace(exchange.getRequest())) {
+            return super.handle(exchange, throwable);
+        }
+        errorAttributes.storeErrorInformation(throwable, exchange);
+        String detail = null;
+        if (throwable instanceof ResponseStatusException) {
+            ResponseStatusException ex = (ResponseStatusException) throwable;
+            response.getHeaders().addAll(ex.getResponseHeaders());
+            detail = ex.getReason();
+        }
+        byte[] body = problemBodies.get(status, detail);
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static HttpStatus expectedStatus(Throwable throwable) {
+        if (throwable instanceof ResponseStatusException) {
+            return ((ResponseStatusException) throwable).getStatus();
+        }
+        if (throwable instanceof CallNotPermittedException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return null;
     }
 
     @Override
@@ -37,7 +91,9 @@ public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
     }
 
     private Mono<ServerResponse> formatErrorResponse(ServerRequest request) {
-        ErrorAttributeOptions errorAttributeOptions = isTraceEnabled(request) ? ErrorAttributeOptions.of(ErrorAttributeOptions.Include.STACK_TRACE) : ErrorAttributeOptions.defaults();
+        ErrorAttributeOptions errorAttributeOptions = includeStackTrace(request.exchange().getRequest())
+                ? ErrorAttributeOptions.of(ErrorAttributeOptions.Include.STACK_TRACE)
+                : ErrorAttributeOptions.defaults();
         Map<String, Object> errorAttributes = getErrorAttributes(request, errorAttributeOptions);
         int status = (int) Optional.ofNullable(errorAttributes.get("status")).orElse(500);
         return ServerResponse
@@ -45,4 +101,16 @@ public class GlobalExceptionHandler extends AbstractErrorWebExceptionHandler {
                 .contentType(MediaType.APPLICATION_JSON)
                 .body(BodyInserters.fromValue(errorAttributes));
     }
+
+    private boolean includeStackTrace(ServerHttpRequest request) {
+        switch (includeStacktrace) {
+            case ALWAYS:
+                return true;
+            case ON_PARAM:
+                String trace = request.getQueryParams().getFirst("trace");
+                return trace != null && !"false".equalsIgnoreCase(trace);
+            default:
+                return false;
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package com.robsonkades.springwebflux.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialized RFC 7807 problem bodies. The body of every error status without a detail is written once at startup,
+ * and those with a detail are kept after first use, so answering an expected error copies bytes instead of building
+ * and serializing a map. Details that vary per request simply fall out of the bounded cache.
+ */
+@Component
+public class ProblemBodies {
+
+    private static final int MAXIMUM_DETAILED_BODIES = 1_000;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<HttpStatus, byte[]> bodies = new EnumMap<>(HttpStatus.class);
+
+    private final Cache<String, byte[]> detailedBodies = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_DETAILED_BODIES)
+            .build();
+
+    public ProblemBodies(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.isError()) {
+                bodies.put(status, serialize(status, null));
+            }
+        }
+    }
+
+    public byte[] get(HttpStatus status, @Nullable String detail) {
+        if (detail == null) {
+            byte[] body = bodies.get(status);
+            return body != null ? body : serialize(status, null);
+        }
+        return detailedBodies.get(status.value() + " " + detail, key -> serialize(status, detail));
+    }
+
+    private byte[] serialize(HttpStatus status, @Nullable String detail) {
+        Map<String, Object> problem = new LinkedHashMap<>();
+        problem.put("type", "about:blank");
+        problem.put("title", status.getReasonPhrase());
+        problem.put("status", status.value());
+        if (detail != null) {
+            problem.put("detail", detail);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(problem);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the problem body of " + status, e);
+        }
+    }
+}
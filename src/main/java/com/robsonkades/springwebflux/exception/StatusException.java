@@ -0,0 +1,29 @@
+package com.robsonkades.springwebflux.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * {@link ResponseStatusException} for statuses that are part of normal operation, such as a 404 for an unknown id,
+ * without a stack trace: walking the stack is most of what an exception costs, and these are never logged with one.
+ * Instances are not shared, since Reactor checkpoints record themselves on the exceptions passing through.
+ */
+public class StatusException extends ResponseStatusException {
+
+    public StatusException(HttpStatus status) {
+        super(status);
+    }
+
+    public StatusException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+
+    public StatusException(HttpStatus status, String reason, Throwable cause) {
+        super(status, reason, cause);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,120 @@
+package com.robsonkades.springwebflux.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.robsonkades.springwebflux.config.ConcurrencyLimitProperties;
+import com.robsonkades.springwebflux.config.RouteMatcher;
+import com.robsonkades.springwebflux.deadline.Deadline;
+
+/**
+ * Sheds load before it queues on the connection pool: every partition of {@code concurrency-limit.partitions} admits
+ * up to its {@link GradientLimit} of concurrent requests and answers the rest at once with the rejection status and
+ * {@code Retry-After}. Runs right after the access log and the deadline, ahead of authentication, so a rejected
+ * request costs next to nothing. A request cancelled by its deadline shrinks the limit as a drop, one its client
+ * cancelled only releases its slot.
+ * <p>
+ * Publishes the {@code concurrency.limit} and {@code concurrency.inflight} gauges and the
+ * {@code concurrency.rejected} counter, all tagged with the partition.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(prefix = "concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitWebFilter implements WebFilter {
+
+    private final List<Partition> partitions;
+
+    public ConcurrencyLimitWebFilter(ConcurrencyLimitProperties concurrencyLimitProperties,
+                                     MeterRegistry meterRegistry) {
+        this.partitions = concurrencyLimitProperties.getPartitions().entrySet().stream()
+                .map(entry -> new Partition(entry.getKey(), entry.getValue(), meterRegistry))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        Partition partition = partition(exchange.getRequest());
+        if (partition == null) {
+            return chain.filter(exchange);
+        }
+        GradientLimit limit = partition.limit;
+        if (!limit.tryAcquire()) {
+            partition.rejected.increment();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(partition.properties.getRejectionStatus());
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, partition.retryAfter);
+            return response.setComplete();
+        }
+        int inflight = limit.getInflight();
+        long start = System.nanoTime();
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.from(context);
+            return chain.filter(exchange)
+                    .doFinally(signal -> {
+                        limit.release();
+                        if (signal != SignalType.CANCEL) {
+                            limit.onSample(System.nanoTime() - start, inflight);
+                        } else if (deadline.map(Deadline::isExpired).orElse(false)) {
+                            limit.onDropped();
+                        }
+                    });
+        });
+    }
+
+    private Partition partition(ServerHttpRequest request) {
+        for (Partition partition : partitions) {
+            if (partition.route.matches(request)) {
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    private static final class Partition {
+
+        private final ConcurrencyLimitProperties.Partition properties;
+
+        private final RouteMatcher route;
+
+        private final String retryAfter;
+
+        private final GradientLimit limit;
+
+        private final Counter rejected;
+
+        private Partition(String name, ConcurrencyLimitProperties.Partition properties, MeterRegistry meterRegistry) {
+            this.properties = properties;
+            this.route = new RouteMatcher(properties);
+            this.retryAfter = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+            this.limit = new GradientLimit(properties.getInitialLimit(), properties.getMinLimit(),
+                    properties.getMaxLimit(), properties.getTolerance());
+            this.rejected = Counter.builder("concurrency.rejected")
+                    .tag("partition", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.limit", limit, GradientLimit::getLimit)
+                    .tag("partition", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency.inflight", limit, GradientLimit::getInflight)
+                    .tag("partition", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.robsonkades.springwebflux.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows the gradient between the long-term average latency and the latest one, after
+ * Netflix's Gradient2: while latency stays within {@code tolerance} of its average the limit grows by about its square
+ * root, and once it rises further the limit shrinks in proportion, down to half per sample. Samples taken while less
+ * than half the limit was in use say nothing about the limit being too low, so they never grow it.
+ */
+public class GradientLimit {
+
+    /**
+     * Weight of one sample in the long-term average, about the last 600 samples.
+     */
+    private static final double LONG_RTT_WEIGHT = 2.0 / 601;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double tolerance;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private double longRttNanos;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * Takes a slot, or returns {@code false} when all of them are in use.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inflight.decrementAndGet();
+    }
+
+    /**
+     * Adjusts the limit to the latency of a request that started with {@code inflight} requests in the partition.
+     */
+    public synchronized void onSample(long rttNanos, int inflight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) * LONG_RTT_WEIGHT;
+        if (longRttNanos > rttNanos * 2) {
+            // latency dropped for good, let the average catch up instead of taking hundreds of samples
+            longRttNanos *= 0.95;
+        }
+        double current = limit;
+        if (inflight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * Shrinks the limit after a request ran out of time: how long it would have taken is unknown, only that it was
+     * too long.
+     */
+    public synchronized void onDropped() {
+        limit = Math.max(minLimit, limit * DROP_BACKOFF);
+    }
+}
@@ -0,0 +1,68 @@
+package com.robsonkades.springwebflux.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+
+import com.robsonkades.springwebflux.config.LogSamplingProperties;
+
+/**
+ * Writes one {@code key=value} line per request: every request slower than {@code log-sampling.access.slow-threshold}
+ * at WARN, and a sample of the others at INFO. Requests are keyed by method and route pattern
+ * ({@code GET /animes/{id}}) so rates can be set per endpoint without one entry per id.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogWebFilter implements WebFilter {
+
+    private final LogSampler logSampler;
+
+    private final long slowThresholdNanos;
+
+    public AccessLogWebFilter(LogSampler logSampler, LogSamplingProperties logSamplingProperties) {
+        this.logSampler = logSampler;
+        this.slowThresholdNanos = logSamplingProperties.getAccess().getSlowThreshold().toNanos();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> log(exchange, System.nanoTime() - start));
+    }
+
+    private void log(ServerWebExchange exchange, long durationNanos) {
+        boolean slow = durationNanos >= slowThresholdNanos;
+        if (!(slow ? log.isWarnEnabled() : log.isInfoEnabled())) {
+            return;
+        }
+        String endpoint = exchange.getRequest().getMethodValue() + ' ' + route(exchange);
+        if (!slow && !logSampler.isSampled(LogSampler.ACCESS, endpoint)) {
+            return;
+        }
+        HttpStatus status = exchange.getResponse().getStatusCode();
+        String message = "endpoint=\"{}\" path={} status={} duration_ms={} request_id={}";
+        Object[] arguments = {endpoint, exchange.getRequest().getPath().value(), status == null ? 200 : status.value(),
+                durationNanos / 1_000_000, exchange.getRequest().getId()};
+        if (slow) {
+            log.warn(message, arguments);
+        } else {
+            log.info(message, arguments);
+        }
+    }
+
+    private static String route(ServerWebExchange exchange) {
+        PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.getPatternString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.robsonkades.springwebflux.logging;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import com.robsonkades.springwebflux.config.LogSamplingProperties;
+
+/**
+ * Decides which events of a log channel ({@code access}, {@code query}) are written. Each channel has a default
+ * rate and optional per-key overrides; both start from {@link LogSamplingProperties} and can be changed at runtime
+ * through the {@code logsampling} actuator endpoint.
+ */
+@Component
+public class LogSampler {
+
+    public static final String ACCESS = "access";
+
+    public static final String QUERY = "query";
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    public LogSampler(LogSamplingProperties logSamplingProperties) {
+        channels.put(ACCESS, new Channel(logSamplingProperties.getAccess()));
+        channels.put(QUERY, new Channel(logSamplingProperties.getQuery()));
+    }
+
+    public boolean isSampled(String channel, String key) {
+        double rate = channel(channel).rate(key);
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Sets the default rate of {@code channel}, or the rate of one of its keys when {@code key} is given.
+     */
+    public void setRate(String channel, @Nullable String key, double rate) {
+        Assert.isTrue(rate >= 0 && rate <= 1, "Rate must be between 0 and 1");
+        Channel target = channel(channel);
+        if (key == null) {
+            target.rate = rate;
+        } else {
+            target.rates.put(key, rate);
+        }
+    }
+
+    /**
+     * Drops the rate of {@code key}, so the channel default applies to it again.
+     */
+    public void resetRate(String channel, String key) {
+        channel(channel).rates.remove(key);
+    }
+
+    public Map<String, Object> rates() {
+        Map<String, Object> rates = new TreeMap<>();
+        channels.forEach((name, channel) -> {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("rate", channel.rate);
+            description.put("rates", new TreeMap<>(channel.rates));
+            rates.put(name, description);
+        });
+        return rates;
+    }
+
+    private Channel channel(String name) {
+        Channel channel = channels.get(name);
+        Assert.notNull(channel, () -> "Unknown log channel " + name + ", expected one of " + channels.keySet());
+        return channel;
+    }
+
+    private static class Channel {
+
+        private volatile double rate;
+
+        private final Map<String, Double> rates;
+
+        private Channel(LogSamplingProperties.Channel properties) {
+            this.rate = properties.getRate();
+            this.rates = new ConcurrentHashMap<>(properties.getRates());
+        }
+
+        private double rate(String key) {
+            Double override = rates.get(key);
+            return override == null ? rate : override;
+        }
+    }
+}
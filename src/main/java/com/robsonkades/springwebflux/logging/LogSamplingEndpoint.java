@@ -0,0 +1,59 @@
+package com.robsonkades.springwebflux.logging;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shows and changes the {@link LogSampler} rates, e.g.
+ * <pre>
+ * POST /actuator/logsampling {"channel": "access", "key": "GET /animes/{id}", "rate": 1}
+ * DELETE /actuator/logsampling?channel=access&amp;key=GET /animes/{id}
+ * </pre>
+ */
+@Component
+@Endpoint(id = "logsampling")
+public class LogSamplingEndpoint {
+
+    private final LogSampler logSampler;
+
+    public LogSamplingEndpoint(LogSampler logSampler) {
+        this.logSampler = logSampler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> rates() {
+        return logSampler.rates();
+    }
+
+    @WriteOperation
+    public Map<String, Object> setRate(String channel, @Nullable String key, double rate) {
+        return validated(() -> {
+            logSampler.setRate(channel, key, rate);
+            return logSampler.rates();
+        });
+    }
+
+    @DeleteOperation
+    public Map<String, Object> resetRate(String channel, String key) {
+        return validated(() -> {
+            logSampler.resetRate(channel, key);
+            return logSampler.rates();
+        });
+    }
+
+    private static Map<String, Object> validated(Supplier<Map<String, Object>> operation) {
+        try {
+            return operation.get();
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+}
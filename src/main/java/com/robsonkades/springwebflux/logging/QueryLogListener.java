@@ -0,0 +1,57 @@
+package com.robsonkades.springwebflux.logging;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+import com.robsonkades.springwebflux.config.LogSamplingProperties;
+
+/**
+ * Logs repository calls, keyed by {@code Repository.method}: every call slower than
+ * {@code log-sampling.query.slow-threshold} at WARN and a sample of the others at INFO. For reactive repositories
+ * the duration runs until the returned publisher terminates. Replaces statement logging of the R2DBC driver, which
+ * printed every statement at DEBUG.
+ */
+@Slf4j
+public class QueryLogListener implements RepositoryMethodInvocationListener {
+
+    private final LogSampler logSampler;
+
+    private final long slowThresholdNanos;
+
+    private final Map<Method, String> keys = new ConcurrentHashMap<>();
+
+    public QueryLogListener(LogSampler logSampler, LogSamplingProperties logSamplingProperties) {
+        this.logSampler = logSampler;
+        this.slowThresholdNanos = logSamplingProperties.getQuery().getSlowThreshold().toNanos();
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        long durationNanos = invocation.getDuration(TimeUnit.NANOSECONDS);
+        boolean slow = durationNanos >= slowThresholdNanos;
+        if (!(slow ? log.isWarnEnabled() : log.isInfoEnabled())) {
+            return;
+        }
+        String key = keys.computeIfAbsent(invocation.getMethod(),
+                method -> invocation.getRepositoryInterface().getSimpleName() + '.' + method.getName());
+        if (!slow && !logSampler.isSampled(LogSampler.QUERY, key)) {
+            return;
+        }
+        RepositoryMethodInvocationResult result = invocation.getResult();
+        String message = "query={} state={} error={} duration_ms={}";
+        Object[] arguments = {key, result == null ? "UNKNOWN" : result.getState(),
+                result == null || result.getError() == null ? "none" : result.getError().getClass().getSimpleName(),
+                durationNanos / 1_000_000};
+        if (slow) {
+            log.warn(message, arguments);
+        } else {
+            log.info(message, arguments);
+        }
+    }
+}
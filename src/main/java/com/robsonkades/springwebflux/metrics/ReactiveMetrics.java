@@ -0,0 +1,98 @@
+package com.robsonkades.springwebflux.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Times reactive pipelines from subscription to termination. For a pipeline named {@code anime.service} and
+ * operation {@code findById} it publishes the {@code anime.service} timer (tags: method, outcome, exception),
+ * the {@code anime.service.inflight} gauge and, for {@link Flux} results, the {@code anime.service.elements}
+ * distribution. Percentile histograms are turned on per name under {@code management.metrics.distribution}.
+ */
+@Component
+public class ReactiveMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public ReactiveMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> Mono<T> timed(String name, String method, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Execution execution = new Execution(name, method);
+            return mono
+                    .doOnSuccess(value -> execution.stop(value == null ? "empty" : "success", null))
+                    .doOnError(e -> execution.stop("error", e))
+                    .doOnCancel(() -> execution.stop("cancelled", null));
+        });
+    }
+
+    public <T> Flux<T> timed(String name, String method, Flux<T> flux) {
+        return Flux.defer(() -> {
+            Execution execution = new Execution(name, method);
+            AtomicLong elements = new AtomicLong();
+            return flux
+                    .doOnNext(value -> elements.incrementAndGet())
+                    .doOnComplete(() -> execution.stop("success", null))
+                    .doOnError(e -> execution.stop("error", e))
+                    .doOnCancel(() -> execution.stop("cancelled", null))
+                    .doFinally(signal -> DistributionSummary.builder(name + ".elements")
+                            .tag("method", method)
+                            .register(meterRegistry)
+                            .record(elements.get()));
+        });
+    }
+
+    private AtomicInteger inFlight(String name, String method) {
+        return inFlight.computeIfAbsent(name + '#' + method, key -> meterRegistry.gauge(name + ".inflight",
+                Tags.of("method", method), new AtomicInteger()));
+    }
+
+    private class Execution {
+
+        private final String name;
+
+        private final String method;
+
+        private final Timer.Sample sample;
+
+        private final AtomicInteger active;
+
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        private Execution(String name, String method) {
+            this.name = name;
+            this.method = method;
+            this.sample = Timer.start(meterRegistry);
+            this.active = inFlight(name, method);
+            this.active.incrementAndGet();
+        }
+
+        private void stop(String outcome, Throwable error) {
+            if (!stopped.compareAndSet(false, true)) {
+                return;
+            }
+            active.decrementAndGet();
+            sample.stop(Timer.builder(name)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+                    .register(meterRegistry));
+        }
+    }
+}
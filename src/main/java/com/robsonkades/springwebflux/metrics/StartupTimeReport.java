@@ -0,0 +1,85 @@
+package com.robsonkades.springwebflux.metrics;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs the beans that took longest to create once the application is ready. Times are exclusive of the beans
+ * created as their dependencies, so a slow repository does not also show up against every service using it. Only
+ * active when the application was started with a {@link BufferingApplicationStartup}, as {@code main} does; the
+ * full timeline stays available at {@code /actuator/startup}.
+ */
+@Slf4j
+@Component
+public class StartupTimeReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private static final int SLOWEST_BEANS = 15;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ApplicationStartup applicationStartup = event.getApplicationContext().getApplicationStartup();
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+        List<StartupTimeline.TimelineEvent> instantiations = timeline.getEvents().stream()
+                .filter(timelineEvent -> BEAN_INSTANTIATION.equals(timelineEvent.getStartupStep().getName()))
+                .collect(Collectors.toList());
+
+        Map<Long, Duration> dependencyTime = new HashMap<>();
+        for (StartupTimeline.TimelineEvent instantiation : instantiations) {
+            Long parentId = instantiation.getStartupStep().getParentId();
+            if (parentId != null) {
+                dependencyTime.merge(parentId, instantiation.getDuration(), Duration::plus);
+            }
+        }
+
+        String slowest = instantiations.stream()
+                .map(instantiation -> new BeanTime(beanName(instantiation.getStartupStep()), instantiation.getDuration()
+                        .minus(dependencyTime.getOrDefault(instantiation.getStartupStep().getId(), Duration.ZERO))))
+                .sorted(Comparator.comparing(BeanTime::getSelf).reversed())
+                .limit(SLOWEST_BEANS)
+                .map(BeanTime::toString)
+                .collect(Collectors.joining("\n"));
+        log.info("{} beans created; slowest beans (ms, excluding dependencies):\n{}", instantiations.size(), slowest);
+    }
+
+    private static String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("?");
+    }
+
+    @Value
+    private static class BeanTime {
+
+        String beanName;
+
+        Duration self;
+
+        @Override
+        public String toString() {
+            return String.format("%8d  %s", self.toMillis(), beanName);
+        }
+    }
+}
@@ -1,12 +1,46 @@
 package com.robsonkades.springwebflux.repository;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 
 import com.robsonkades.springwebflux.domain.Anime;
 
-public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer> {
+public interface AnimeRepository extends ReactiveCrudRepository<Anime, Integer>, AnimeRepositoryCustom {
 
     Mono<Anime> findById(Integer id);
+
+    /**
+     * Binds the ids as one array parameter, so every batch size shares the same prepared statement.
+     */
+    @Query("SELECT * FROM anime WHERE id = ANY(:ids)")
+    Flux<Anime> findAllByIdIn(Integer[] ids);
+
+    @Query("SELECT * FROM anime WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Anime> findPage(int after, int limit);
+
+    @Query("SELECT version FROM anime WHERE id = :id")
+    Mono<Integer> findVersionById(Integer id);
+
+    @Query("UPDATE anime SET name = :name, version = version + 1 WHERE id = :id RETURNING *")
+    Mono<Anime> updateName(Integer id, String name);
+
+    /**
+     * Updates the anime only while its version is one of {@code versions}; empty when it is missing or has changed.
+     */
+    @Query("UPDATE anime SET name = :name, version = version + 1 WHERE id = :id AND version IN (:versions) RETURNING *")
+    Mono<Anime> updateName(Integer id, String name, Collection<Integer> versions);
+
+    @Modifying
+    @Query("DELETE FROM anime WHERE id = :id")
+    Mono<Integer> removeById(Integer id);
+
+    @Modifying
+    @Query("DELETE FROM anime WHERE id = :id AND version IN (:versions)")
+    Mono<Integer> removeById(Integer id, Collection<Integer> versions);
 }
@@ -0,0 +1,19 @@
+package com.robsonkades.springwebflux.repository;
+
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import com.robsonkades.springwebflux.domain.Anime;
+
+public interface AnimeRepositoryCustom {
+
+    Flux<Anime> streamAll(int fetchSize);
+
+    Flux<Anime> insertAll(List<Anime> animes);
+
+    /**
+     * Animes whose name contains {@code query} or is similar to it by {@code pg_trgm}, names starting with it first.
+     */
+    Flux<Anime> searchByName(String query, int limit);
+}
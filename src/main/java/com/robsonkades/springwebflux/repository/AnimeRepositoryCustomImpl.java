@@ -0,0 +1,78 @@
+package com.robsonkades.springwebflux.repository;
+
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.domain.Anime;
+
+@RequiredArgsConstructor
+public class AnimeRepositoryCustomImpl implements AnimeRepositoryCustom {
+
+    private static final int MAX_BIND_PARAMETERS = Short.MAX_VALUE;
+
+    private final R2dbcEntityTemplate template;
+
+    private final AnimeProperties animeProperties;
+
+    @Override
+    public Flux<Anime> streamAll(int fetchSize) {
+        return template.getDatabaseClient()
+                .sql("SELECT * FROM anime ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(this::read)
+                .all();
+    }
+
+    @Override
+    public Flux<Anime> insertAll(List<Anime> animes) {
+        int chunkSize = Math.min(animeProperties.getBatch().getChunkSize(), MAX_BIND_PARAMETERS);
+        return Flux.fromIterable(animes)
+                .buffer(chunkSize)
+                .concatMap(this::insertChunk);
+    }
+
+    @Override
+    public Flux<Anime> searchByName(String query, int limit) {
+        String pattern = escapeLike(query.trim());
+        return template.getDatabaseClient()
+                .sql("SELECT * FROM anime WHERE name % :query OR name ILIKE :contains"
+                        + " ORDER BY name ILIKE :prefix DESC, similarity(name, :query) DESC, id LIMIT :limit")
+                .bind("query", query)
+                .bind("contains", '%' + pattern + '%')
+                .bind("prefix", pattern + '%')
+                .bind("limit", limit)
+                .map(this::read)
+                .all();
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private Flux<Anime> insertChunk(List<Anime> chunk) {
+        StringBuilder sql = new StringBuilder("INSERT INTO anime (name) VALUES ");
+        for (int i = 1; i <= chunk.size(); i++) {
+            sql.append(i == 1 ? "($" : ", ($").append(i).append(')');
+        }
+        sql.append(" RETURNING *");
+
+        DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql.toString());
+        for (int i = 0; i < chunk.size(); i++) {
+            String name = chunk.get(i).getName();
+            spec = name == null ? spec.bindNull(i, String.class) : spec.bind(i, name);
+        }
+        return spec.map(this::read).all();
+    }
+
+    private Anime read(Row row, RowMetadata metadata) {
+        return template.getConverter().read(Anime.class, row, metadata);
+    }
+}
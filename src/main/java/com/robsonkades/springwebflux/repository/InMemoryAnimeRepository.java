@@ -0,0 +1,293 @@
+package com.robsonkades.springwebflux.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.Assert;
+
+import com.robsonkades.springwebflux.changes.AnimeChangeFeed;
+import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChange;
+
+/**
+ * Heap-only {@link AnimeRepository} for the {@code memory} profile. Ids come from a sequence and are never reused,
+ * so ordered reads walk the id range instead of sorting the keys. Versions follow Spring Data: an anime without a
+ * version is new, and saving an existing one requires its current version. Every write is published to the
+ * {@link AnimeChangeFeed}, as the trigger of the anime table does in Postgres.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryAnimeRepository implements AnimeRepository {
+
+    private final StripedIntObjectMap<Anime> animes =
+            new StripedIntObjectMap<>(Runtime.getRuntime().availableProcessors() * 4);
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private final AnimeChangeFeed animeChangeFeed;
+
+    public InMemoryAnimeRepository(AnimeChangeFeed animeChangeFeed) {
+        this.animeChangeFeed = animeChangeFeed;
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        return Mono.fromSupplier(() -> {
+            Assert.notNull(id, "Id must not be null");
+            return copy(animes.get(id));
+        });
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        return scan(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Flux<Anime> findPage(int after, int limit) {
+        return scan(after, limit);
+    }
+
+    @Override
+    public Flux<Anime> streamAll(int fetchSize) {
+        return findAll();
+    }
+
+    @Override
+    public Flux<Anime> findAllByIdIn(Integer[] ids) {
+        return Flux.fromArray(ids).distinct().concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> ids) {
+        return Flux.from(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) animes.size());
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S anime) {
+        return Mono.fromSupplier(() -> {
+            Assert.notNull(anime, "Entity must not be null");
+            if (anime.getVersion() == null) {
+                if (anime.getId() == null) {
+                    anime.setId(sequence.incrementAndGet());
+                } else {
+                    sequence.accumulateAndGet(anime.getId(), Math::max);
+                }
+                anime.setVersion(0);
+                animes.put(anime.getId(), copy(anime));
+                animeChangeFeed.publish(AnimeChange.of(AnimeChange.Type.INSERT, anime));
+                return anime;
+            }
+            Anime updated = anime.withVersion(anime.getVersion() + 1);
+            boolean[] matched = new boolean[1];
+            animes.computeIfPresent(anime.getId(), stored -> {
+                matched[0] = Objects.equals(stored.getVersion(), anime.getVersion());
+                return matched[0] ? copy(updated) : stored;
+            });
+            if (!matched[0]) {
+                throw new OptimisticLockingFailureException(String.format(
+                        "Failed to update table [anime]; Version does not match for row with ID [%s]", anime.getId()));
+            }
+            anime.setVersion(updated.getVersion());
+            animeChangeFeed.publish(AnimeChange.of(AnimeChange.Type.UPDATE, updated));
+            return anime;
+        });
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> animes) {
+        return Flux.fromIterable(animes).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> animes) {
+        return Flux.from(animes).concatMap(this::save);
+    }
+
+    @Override
+    public Flux<Anime> insertAll(List<Anime> animes) {
+        return Flux.fromIterable(animes)
+                .map(anime -> new Anime(null, anime.getName(), null))
+                .concatMap(this::save);
+    }
+
+    /**
+     * Substring matches only, names starting with the query first; trigram similarity is left to the name index,
+     * which loads as soon as the application starts. The walk in id order stops once {@code limit} names start with
+     * the query, and only the animes returned are copied.
+     */
+    @Override
+    public Flux<Anime> searchByName(String query, int limit) {
+        return Flux.defer(() -> {
+            String normalizedQuery = query.trim().toLowerCase(Locale.ROOT);
+            List<Anime> prefixMatches = new ArrayList<>();
+            List<Anime> otherMatches = new ArrayList<>();
+            int last = sequence.get();
+            for (int id = 1; id <= last && prefixMatches.size() < limit; id++) {
+                Anime anime = animes.get(id);
+                if (anime == null) {
+                    continue;
+                }
+                String name = anime.getName().toLowerCase(Locale.ROOT);
+                if (name.startsWith(normalizedQuery)) {
+                    prefixMatches.add(anime);
+                } else if (otherMatches.size() < limit && name.contains(normalizedQuery)) {
+                    otherMatches.add(anime);
+                }
+            }
+            return Flux.concat(Flux.fromIterable(prefixMatches), Flux.fromIterable(otherMatches))
+                    .take(limit)
+                    .map(InMemoryAnimeRepository::copy);
+        });
+    }
+
+    @Override
+    public Mono<Integer> findVersionById(Integer id) {
+        return Mono.fromSupplier(() -> {
+            Anime anime = animes.get(id);
+            return anime == null ? null : anime.getVersion();
+        });
+    }
+
+    @Override
+    public Mono<Anime> updateName(Integer id, String name) {
+        return Mono.fromSupplier(() -> updated(animes.computeIfPresent(id, stored -> rename(stored, name))));
+    }
+
+    @Override
+    public Mono<Anime> updateName(Integer id, String name, Collection<Integer> versions) {
+        return Mono.fromSupplier(() -> {
+            boolean[] matched = new boolean[1];
+            Anime anime = animes.computeIfPresent(id, stored -> {
+                matched[0] = versions.contains(stored.getVersion());
+                return matched[0] ? rename(stored, name) : stored;
+            });
+            return matched[0] ? updated(anime) : null;
+        });
+    }
+
+    @Override
+    public Mono<Integer> removeById(Integer id) {
+        return Mono.fromSupplier(() -> removed(animes.remove(id)));
+    }
+
+    @Override
+    public Mono<Integer> removeById(Integer id, Collection<Integer> versions) {
+        return Mono.fromSupplier(() -> removed(animes.remove(id, anime -> versions.contains(anime.getVersion()))));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return removeById(id).then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(Anime anime) {
+        return deleteById(anime.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Integer> ids) {
+        return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> animes) {
+        return Flux.fromIterable(animes).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> animes) {
+        return Flux.from(animes).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(() -> {
+            animes.clear();
+            animeChangeFeed.reset();
+        });
+    }
+
+    private Flux<Anime> scan(int after, int limit) {
+        return Flux.defer(() -> {
+            int last = sequence.get();
+            return Flux.<Anime, int[]>generate(() -> new int[]{Math.max(after, 0)}, (cursor, sink) -> {
+                Anime anime = null;
+                while (anime == null && cursor[0] < last) {
+                    anime = animes.get(++cursor[0]);
+                }
+                if (anime == null) {
+                    sink.complete();
+                } else {
+                    sink.next(copy(anime));
+                }
+                return cursor;
+            }).take(limit);
+        });
+    }
+
+    private Anime updated(Anime anime) {
+        if (anime != null) {
+            animeChangeFeed.publish(AnimeChange.of(AnimeChange.Type.UPDATE, anime));
+        }
+        return copy(anime);
+    }
+
+    private int removed(Anime anime) {
+        if (anime == null) {
+            return 0;
+        }
+        animeChangeFeed.publish(AnimeChange.of(AnimeChange.Type.DELETE, anime));
+        return 1;
+    }
+
+    private static Anime rename(Anime anime, String name) {
+        return new Anime(anime.getId(), name, anime.getVersion() + 1);
+    }
+
+    private static Anime copy(Anime anime) {
+        return anime == null ? null : new Anime(anime.getId(), anime.getName(), anime.getVersion());
+    }
+}
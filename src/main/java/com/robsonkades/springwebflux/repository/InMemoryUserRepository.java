@@ -0,0 +1,137 @@
+package com.robsonkades.springwebflux.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import com.robsonkades.springwebflux.config.DatabaseProperties;
+import com.robsonkades.springwebflux.domain.User;
+
+/**
+ * {@link UserRepository} of the {@code memory} profile, seeded from {@code database.memory.users}.
+ */
+@Repository
+@Profile("memory")
+public class InMemoryUserRepository implements UserRepository {
+
+    private final Map<Integer, User> users = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public InMemoryUserRepository(DatabaseProperties databaseProperties) {
+        databaseProperties.getMemory().getUsers().forEach(user -> {
+            int id = sequence.incrementAndGet();
+            users.put(id, new User(id, user.getName(), user.getUsername(), user.getPassword(), user.getAuthorities()));
+        });
+    }
+
+    @Override
+    public Mono<User> findByUsername(String username) {
+        return Flux.fromIterable(users.values())
+                .filter(user -> user.getUsername().equals(username))
+                .next();
+    }
+
+    @Override
+    public Mono<User> findById(Integer id) {
+        return Mono.fromSupplier(() -> users.get(id));
+    }
+
+    @Override
+    public Mono<User> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        return Mono.fromSupplier(() -> users.containsKey(id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<User> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(users.values()));
+    }
+
+    @Override
+    public Flux<User> findAllById(Iterable<Integer> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<User> findAllById(Publisher<Integer> ids) {
+        return Flux.from(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) users.size());
+    }
+
+    @Override
+    public <S extends User> Mono<S> save(S user) {
+        return Mono.fromSupplier(() -> {
+            if (user.getId() == null) {
+                user.setId(sequence.incrementAndGet());
+            }
+            users.put(user.getId(), user);
+            return user;
+        });
+    }
+
+    @Override
+    public <S extends User> Flux<S> saveAll(Iterable<S> users) {
+        return Flux.fromIterable(users).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends User> Flux<S> saveAll(Publisher<S> users) {
+        return Flux.from(users).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return Mono.fromRunnable(() -> users.remove(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(User user) {
+        return deleteById(user.getId());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Integer> ids) {
+        return Flux.fromIterable(ids).concatMap(this::deleteById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends User> users) {
+        return Flux.fromIterable(users).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends User> users) {
+        return Flux.from(users).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(users::clear);
+    }
+}
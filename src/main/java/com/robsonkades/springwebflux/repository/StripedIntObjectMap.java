@@ -0,0 +1,281 @@
+package com.robsonkades.springwebflux.repository;
+
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Concurrent map from positive {@code int} keys to values. Each stripe is an open-addressing table with linear
+ * probing over a plain {@code int[]}, so neither keys nor entries are boxed. Writers lock a single stripe; readers
+ * take an optimistic stamp and only fall back to the read lock when a writer touched the stripe meanwhile.
+ */
+public class StripedIntObjectMap<V> {
+
+    private static final int EMPTY = 0;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe<V>[] stripes;
+
+    private final int stripeShift;
+
+    @SuppressWarnings("unchecked")
+    public StripedIntObjectMap(int concurrencyLevel) {
+        int stripeCount = 1;
+        while (stripeCount < concurrencyLevel) {
+            stripeCount <<= 1;
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    public V get(int key) {
+        int hash = hash(key);
+        return stripe(hash).get(key, hash);
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}, returning the previous value or {@code null}.
+     */
+    public V put(int key, V value) {
+        checkKey(key);
+        Objects.requireNonNull(value);
+        int hash = hash(key);
+        return stripe(hash).put(key, hash, value);
+    }
+
+    /**
+     * Atomically replaces the value of an existing key, returning the new value, or {@code null} when the key is
+     * absent.
+     */
+    public V computeIfPresent(int key, UnaryOperator<V> remapping) {
+        int hash = hash(key);
+        return stripe(hash).computeIfPresent(key, hash, remapping);
+    }
+
+    public V remove(int key) {
+        return remove(key, value -> true);
+    }
+
+    /**
+     * Removes {@code key} only if its value matches {@code condition}, returning the removed value or {@code null}.
+     */
+    public V remove(int key, Predicate<? super V> condition) {
+        int hash = hash(key);
+        return stripe(hash).remove(key, hash, condition);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Stripe<V> stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private Stripe<V> stripe(int hash) {
+        return stripeShift == Integer.SIZE ? stripes[0] : stripes[hash >>> stripeShift];
+    }
+
+    private static void checkKey(int key) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static final class Table {
+
+        private final int[] keys;
+
+        private final Object[] values;
+
+        private Table(int capacity) {
+            this.keys = new int[capacity];
+            this.values = new Object[capacity];
+        }
+
+        private int mask() {
+            return keys.length - 1;
+        }
+
+        /**
+         * Returns the slot holding {@code key}, or {@code -1 - slot} of the empty slot that ends its probe sequence.
+         */
+        private int indexOf(int key, int hash) {
+            int mask = mask();
+            int slot = hash & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                int candidate = keys[slot];
+                if (candidate == key) {
+                    return slot;
+                }
+                if (candidate == EMPTY) {
+                    return -1 - slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    private static final class Stripe<V> {
+
+        private final StampedLock lock = new StampedLock();
+
+        private Table table = new Table(INITIAL_CAPACITY);
+
+        private int size;
+
+        private V get(int key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                V value = find(table, key, hash);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(table, key, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V find(Table table, int key, int hash) {
+            int slot = table.indexOf(key, hash);
+            return slot >= 0 ? (V) table.values[slot] : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private V put(int key, int hash, V value) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.indexOf(key, hash);
+                if (slot >= 0) {
+                    V previous = (V) table.values[slot];
+                    table.values[slot] = value;
+                    return previous;
+                }
+                if ((size + 1) * 2 > table.keys.length) {
+                    resize();
+                    slot = table.indexOf(key, hash);
+                }
+                slot = -1 - slot;
+                table.keys[slot] = key;
+                table.values[slot] = value;
+                size++;
+                return null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private V computeIfPresent(int key, int hash, UnaryOperator<V> remapping) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = table.indexOf(key, hash);
+                if (slot < 0) {
+                    return null;
+                }
+                V value = Objects.requireNonNull(remapping.apply((V) table.values[slot]));
+                table.values[slot] = value;
+                return value;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Removes with backward-shift deletion: entries further along the probe sequence are moved into the hole,
+         * so lookups never need tombstones.
+         */
+        @SuppressWarnings("unchecked")
+        private V remove(int key, int hash, Predicate<? super V> condition) {
+            long stamp = lock.writeLock();
+            try {
+                int hole = table.indexOf(key, hash);
+                if (hole < 0 || !condition.test((V) table.values[hole])) {
+                    return null;
+                }
+                int[] keys = table.keys;
+                Object[] values = table.values;
+                int mask = table.mask();
+                V previous = (V) values[hole];
+                for (int slot = (hole + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                    int home = hash(keys[slot]) & mask;
+                    boolean canMove = slot > hole ? (home <= hole || home > slot) : (home <= hole && home > slot);
+                    if (canMove) {
+                        keys[hole] = keys[slot];
+                        values[hole] = values[slot];
+                        hole = slot;
+                    }
+                }
+                keys[hole] = EMPTY;
+                values[hole] = null;
+                size--;
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void clear() {
+            long stamp = lock.writeLock();
+            try {
+                table = new Table(INITIAL_CAPACITY);
+                size = 0;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void resize() {
+            Table resized = new Table(table.keys.length * 2);
+            for (int i = 0; i < table.keys.length; i++) {
+                int key = table.keys[i];
+                if (key != EMPTY) {
+                    int slot = -1 - resized.indexOf(key, hash(key));
+                    resized.keys[slot] = key;
+                    resized.values[slot] = table.values[i];
+                }
+            }
+            table = resized;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.robsonkades.springwebflux.resilience;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Instant;
+
+/**
+ * Records that a response was built from a snapshot rather than from the database. {@link StalenessWebFilter} puts
+ * one into the Reactor {@code Context} of every read and turns it into response headers.
+ */
+public class Staleness {
+
+    private static final Class<Staleness> CONTEXT_KEY = Staleness.class;
+
+    private Instant oldest;
+
+    public static Context into(Context context, Staleness staleness) {
+        return context.put(CONTEXT_KEY, staleness);
+    }
+
+    /**
+     * Marks the request of {@code context} as answered from a snapshot taken at {@code takenAt}.
+     */
+    public static void mark(ContextView context, Instant takenAt) {
+        context.<Staleness>getOrEmpty(CONTEXT_KEY).ifPresent(staleness -> staleness.record(takenAt));
+    }
+
+    private synchronized void record(Instant takenAt) {
+        if (oldest == null || takenAt.isBefore(oldest)) {
+            oldest = takenAt;
+        }
+    }
+
+    /**
+     * When the oldest snapshot in the response was taken, or {@code null} when the response is fresh.
+     */
+    public synchronized Instant getOldest() {
+        return oldest;
+    }
+}
@@ -0,0 +1,42 @@
+package com.robsonkades.springwebflux.resilience;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+/**
+ * Flags reads answered from a snapshot with {@code Warning: 110 - "Response is Stale"} and an {@code Age} header
+ * giving the seconds since the oldest snapshot in the response was taken.
+ */
+@Component
+public class StalenessWebFilter implements WebFilter {
+
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        Staleness staleness = new Staleness();
+        exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> {
+            Instant oldest = staleness.getOldest();
+            if (oldest != null) {
+                HttpHeaders headers = exchange.getResponse().getHeaders();
+                headers.set(HttpHeaders.WARNING, STALE_WARNING);
+                headers.set(HttpHeaders.AGE,
+                        String.valueOf(Math.max(0, Duration.between(oldest, Instant.now()).toSeconds())));
+            }
+        }));
+        return chain.filter(exchange)
+                .contextWrite(context -> Staleness.into(context, staleness));
+    }
+}
@@ -0,0 +1,34 @@
+package com.robsonkades.springwebflux.routing;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Reactor {@code Context} flags read by the connection factory: the queries of a publisher marked
+ * {@link #readOnly read-only} may run on a replica, unless its request is {@link #pinToPrimary pinned} to the primary
+ * so that it reads its client's own writes. Queries within a transaction keep the connection of the transaction.
+ */
+public final class DatabaseRouting {
+
+    private static final String READ_ONLY = DatabaseRouting.class.getName() + ".readOnly";
+
+    private static final String PINNED_TO_PRIMARY = DatabaseRouting.class.getName() + ".pinnedToPrimary";
+
+    private DatabaseRouting() {
+    }
+
+    public static Context readOnly(Context context) {
+        return context.put(READ_ONLY, Boolean.TRUE);
+    }
+
+    public static Context pinToPrimary(Context context) {
+        return context.put(PINNED_TO_PRIMARY, Boolean.TRUE);
+    }
+
+    /**
+     * Whether the queries of {@code context} may run on a replica.
+     */
+    public static boolean isReplicaAllowed(ContextView context) {
+        return context.hasKey(READ_ONLY) && !context.hasKey(PINNED_TO_PRIMARY);
+    }
+}
@@ -0,0 +1,70 @@
+package com.robsonkades.springwebflux.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.robsonkades.springwebflux.config.DatabaseProperties;
+
+/**
+ * Pins the reads of a client to the primary for {@code database.replicas.read-your-writes} after its last successful
+ * write, so a client does not read from a replica that has not caught up with it yet. Clients are told apart by their
+ * principal and only this instance's writes count; anonymous requests are never pinned.
+ */
+@Component
+public class ReadYourWritesWebFilter implements WebFilter {
+
+    private static final long MAXIMUM_WRITERS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesWebFilter(DatabaseProperties databaseProperties) {
+        DatabaseProperties.Replicas replicas = databaseProperties.getReplicas();
+        Duration window = replicas.getReadYourWrites();
+        this.recentWriters = replicas.getUrls().isEmpty() || window.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_WRITERS)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (recentWriters == null) {
+            return chain.filter(exchange);
+        }
+        HttpMethod method = exchange.getRequest().getMethod();
+        boolean write = method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS;
+        return exchange.getPrincipal()
+                .map(principal -> Optional.of(principal.getName()))
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(name -> {
+                    if (name.isEmpty()) {
+                        return chain.filter(exchange);
+                    }
+                    if (write) {
+                        // the window starts once the write is answered, that is committed, and only if it succeeded
+                        return chain.filter(exchange)
+                                .doOnSuccess(done -> {
+                                    HttpStatus status = exchange.getResponse().getStatusCode();
+                                    if (status == null || status.is2xxSuccessful()) {
+                                        recentWriters.put(name.get(), Boolean.TRUE);
+                                    }
+                                });
+                    }
+                    boolean pinned = recentWriters.getIfPresent(name.get()) != null;
+                    return pinned
+                            ? chain.filter(exchange).contextWrite(DatabaseRouting::pinToPrimary)
+                            : chain.filter(exchange);
+                });
+    }
+}
@@ -0,0 +1,47 @@
+package com.robsonkades.springwebflux.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.repository.AnimeRepository;
+import com.robsonkades.springwebflux.routing.DatabaseRouting;
+
+/**
+ * Turns the lookups of single animes arriving within {@code anime.loader.window} into one
+ * {@code id = ANY($1)} query, guarded by the anime circuit breaker and allowed on a read replica.
+ */
+@Component
+public class AnimeBatchLoader extends BatchLoader<Integer, Anime> {
+
+    private final AnimeRepository animeRepository;
+
+    private final CircuitBreaker circuitBreaker;
+
+    public AnimeBatchLoader(AnimeRepository animeRepository, CircuitBreaker circuitBreaker,
+                            AnimeProperties animeProperties, MeterRegistry meterRegistry) {
+        super("anime", animeProperties.getLoader().getWindow(), animeProperties.getLoader().getMaxSize(),
+                meterRegistry);
+        this.animeRepository = animeRepository;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    protected Flux<Anime> loadAll(List<Integer> ids) {
+        return animeRepository.findAllByIdIn(ids.toArray(new Integer[0]))
+                .contextWrite(DatabaseRouting::readOnly)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    @Override
+    protected Integer keyOf(Anime anime) {
+        return anime.getId();
+    }
+}
@@ -0,0 +1,21 @@
+package com.robsonkades.springwebflux.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.domain.Anime;
+
+@Component
+public class AnimeCache extends ReactiveCache<Integer, Anime> {
+
+    public AnimeCache(AnimeProperties animeProperties, MeterRegistry meterRegistry) {
+        super("anime", animeProperties.getCache().getMaximumSize(), animeProperties.getCache().getTtl(),
+                animeProperties.getCache().getNegativeTtl(), meterRegistry);
+    }
+
+    public void put(Anime anime) {
+        put(anime.getId(), anime);
+    }
+}
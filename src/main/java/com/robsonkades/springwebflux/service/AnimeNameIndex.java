@@ -0,0 +1,275 @@
+package com.robsonkades.springwebflux.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.domain.Anime;
+
+/**
+ * In-process trigram index over anime names, ranked like the {@code pg_trgm} fallback of
+ * {@link com.robsonkades.springwebflux.repository.AnimeRepositoryCustom#searchByName}: names starting with the query
+ * first, then by trigram similarity. A name matches when it contains the query, case-insensitively like
+ * {@code ILIKE}, or is at least {@link #MIN_SIMILARITY} similar to it. Queries without a word of three characters are
+ * checked against every name, since a name can contain them without sharing any of their trigrams.
+ * <p>
+ * Entries carry the anime version, so the startup load never overwrites a newer rename, and ids deleted while the
+ * index is loading are remembered until {@link #markWarm()}.
+ */
+@Component
+public class AnimeNameIndex {
+
+    /**
+     * Default of {@code pg_trgm.similarity_threshold}, which the {@code %} operator of the fallback uses.
+     */
+    static final float MIN_SIMILARITY = 0.3f;
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Match> RANKING = Comparator.comparing((Match match) -> !match.prefix)
+            .thenComparing(match -> -match.similarity)
+            .thenComparingInt(match -> match.entry.id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final Set<Integer> removedWhileLoading = new HashSet<>();
+
+    private volatile boolean warm;
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public void markWarm() {
+        lock.writeLock().lock();
+        try {
+            removedWhileLoading.clear();
+            warm = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the anime unless the index already holds a newer version of it.
+     */
+    public void put(Anime anime) {
+        int version = anime.getVersion() == null ? 0 : anime.getVersion();
+        lock.writeLock().lock();
+        try {
+            if (!warm && removedWhileLoading.contains(anime.getId())) {
+                return;
+            }
+            Entry current = entries.get(anime.getId());
+            if (current != null) {
+                if (current.version > version) {
+                    return;
+                }
+                unlink(current);
+            }
+            Entry entry = new Entry(anime.getId(), anime.getName(), version);
+            entries.put(entry.id, entry);
+            for (String trigram : entry.trigrams) {
+                postings.computeIfAbsent(trigram, key -> new Postings()).add(entry.id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Integer id) {
+        lock.writeLock().lock();
+        try {
+            if (!warm) {
+                removedWhileLoading.add(id);
+            }
+            Entry current = entries.remove(id);
+            if (current != null) {
+                unlink(current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Anime> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        String[] queryTrigrams = trigrams(query);
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Integer, int[]> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Postings ids = postings.get(trigram);
+                if (ids != null) {
+                    for (int i = 0; i < ids.size; i++) {
+                        shared.computeIfAbsent(ids.ids[i], id -> new int[1])[0]++;
+                    }
+                }
+            }
+            shared.forEach((id, count) -> {
+                Entry entry = entries.get(id);
+                float similarity = (float) count[0] / (queryTrigrams.length + entry.trigrams.length - count[0]);
+                boolean contains = entry.normalizedName.contains(normalizedQuery);
+                if (contains || similarity >= MIN_SIMILARITY) {
+                    matches.add(new Match(entry, similarity, entry.normalizedName.startsWith(normalizedQuery)));
+                }
+            });
+            if (!hasWordTrigram(normalizedQuery)) {
+                for (Entry entry : entries.values()) {
+                    if (!shared.containsKey(entry.id) && entry.normalizedName.contains(normalizedQuery)) {
+                        matches.add(new Match(entry, 0, entry.normalizedName.startsWith(normalizedQuery)));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches.stream()
+                .sorted(RANKING)
+                .limit(limit)
+                .map(match -> new Anime(match.entry.id, match.entry.name, match.entry.version))
+                .collect(Collectors.toList());
+    }
+
+    private void unlink(Entry entry) {
+        for (String trigram : entry.trigrams) {
+            Postings ids = postings.get(trigram);
+            if (ids != null && ids.remove(entry.id) && ids.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * Whether the query has a word of at least three characters, whose first unpadded trigram every name containing
+     * the query also has, so that the postings already lead to all of those names.
+     */
+    private static boolean hasWordTrigram(String normalizedQuery) {
+        for (String word : WORD_SEPARATOR.split(normalizedQuery)) {
+            if (word.length() >= 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigrams as {@code pg_trgm} extracts them: lower-cased alphanumeric words, each padded with two spaces in front
+     * and one behind.
+     */
+    static String[] trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams.toArray(new String[0]);
+    }
+
+    private static final class Entry {
+
+        private final int id;
+
+        private final String name;
+
+        private final String normalizedName;
+
+        private final int version;
+
+        private final String[] trigrams;
+
+        private Entry(int id, String name, int version) {
+            this.id = id;
+            this.name = name;
+            this.normalizedName = normalize(name);
+            this.version = version;
+            this.trigrams = trigrams(name);
+        }
+    }
+
+    private static final class Match {
+
+        private final Entry entry;
+
+        private final float similarity;
+
+        private final boolean prefix;
+
+        private Match(Entry entry, float similarity, boolean prefix) {
+            this.entry = entry;
+            this.similarity = similarity;
+            this.prefix = prefix;
+        }
+    }
+
+    /**
+     * Sorted ids of the animes containing one trigram. Ids come from a sequence, so adding is an append in the common
+     * case.
+     */
+    private static final class Postings {
+
+        private int[] ids = new int[4];
+
+        private int size;
+
+        private void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -1 - index;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        private boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.robsonkades.springwebflux.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.repository.AnimeRepository;
+
+/**
+ * Streams the anime table into the {@link AnimeNameIndex} once the application is ready. Searches use the
+ * {@code pg_trgm} query until the load completes; writes made meanwhile go to the index directly.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnimeNameIndexLoader implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final AnimeRepository animeRepository;
+
+    private final AnimeNameIndex animeNameIndex;
+
+    private final AnimeProperties animeProperties;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!animeProperties.getSearch().isIndexEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        animeRepository.streamAll(animeProperties.getStreaming().getPrefetch())
+                .doOnNext(animeNameIndex::put)
+                .then()
+                .subscribe(null,
+                        e -> log.warn("Could not load the anime name index, searching the database instead: {}",
+                                e.toString()),
+                        () -> {
+                            animeNameIndex.markWarm();
+                            log.info("Indexed {} anime names in {} ms", animeNameIndex.size(),
+                                    (System.nanoTime() - start) / 1_000_000);
+                        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.robsonkades.springwebflux.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.domain.Anime;
+
+/**
+ * Coalesces concurrent reads of the same page, keyed by cursor and page size.
+ */
+@Component
+public class AnimePageFlight extends SingleFlight<List<Integer>, List<Anime>> {
+
+    public AnimePageFlight(MeterRegistry meterRegistry) {
+        super("anime.page", meterRegistry);
+    }
+}
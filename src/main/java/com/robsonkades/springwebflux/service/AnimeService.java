@@ -1,63 +1,374 @@
 package com.robsonkades.springwebflux.service;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.r2dbc.spi.R2dbcException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.deadline.Deadline;
 import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChunkResult;
+import com.robsonkades.springwebflux.domain.AnimeLookup;
+import com.robsonkades.springwebflux.domain.AnimePage;
+import com.robsonkades.springwebflux.exception.StatusException;
+import com.robsonkades.springwebflux.metrics.ReactiveMetrics;
 import com.robsonkades.springwebflux.repository.AnimeRepository;
+import com.robsonkades.springwebflux.resilience.Staleness;
+import com.robsonkades.springwebflux.routing.DatabaseRouting;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AnimeService {
 
+    private static final String METRIC_NAME = "anime.service";
+
+    private static final int MAX_QUERY_LENGTH = 255;
+
     private final AnimeRepository animeRepository;
 
+    private final AnimeProperties animeProperties;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final AnimeCache animeCache;
+
+    private final AnimeNameIndex animeNameIndex;
+
+    private final AnimePageFlight animePageFlight;
+
+    private final AnimeBatchLoader animeBatchLoader;
+
+    private final AnimeSnapshot animeSnapshot;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final ReactiveMetrics reactiveMetrics;
+
     public Flux<Anime> findAll() {
-        return animeRepository.findAll();
+        return animeRepository.findAll()
+                .contextWrite(DatabaseRouting::readOnly)
+                .transform(this::guarded)
+                .as(animes -> reactiveMetrics.timed(METRIC_NAME, "findAll", animes));
+    }
+
+    public Flux<Anime> streamAll() {
+        AnimeProperties.Streaming streaming = animeProperties.getStreaming();
+        Flux<Anime> animes = animeRepository.streamAll(streaming.getPrefetch())
+                .contextWrite(DatabaseRouting::readOnly)
+                .limitRate(streaming.getPrefetch());
+        switch (streaming.getSlowConsumerPolicy()) {
+            case BUFFER:
+                animes = animes.onBackpressureBuffer(streaming.getBufferSize(), BufferOverflowStrategy.ERROR);
+                break;
+            case DISCONNECT:
+                animes = animes.timeout(streaming.getStallTimeout());
+                break;
+            default:
+                break;
+        }
+        return animes.doOnError(e -> log.warn("Dropping anime stream consumer: {}", e.toString()))
+                .as(stream -> reactiveMetrics.timed(METRIC_NAME, "streamAll", stream));
+    }
+
+    public Mono<AnimePage> findPage(Integer after, Integer limit) {
+        if (limit != null && limit < 1) {
+            return Mono.error(new StatusException(HttpStatus.BAD_REQUEST, "Invalid limit"));
+        }
+        int cursor = after == null ? 0 : after;
+        int pageSize = pageSize(limit);
+        List<Integer> key = List.of(cursor, pageSize);
+        return animePageFlight
+                .execute(key, k -> animeRepository.findPage(cursor, pageSize)
+                        .contextWrite(DatabaseRouting::readOnly)
+                        .collectList()
+                        .transform(this::guarded)
+                        .doOnNext(content -> animeSnapshot.putPage(key, content)))
+                .onErrorResume(AnimeService::isUnavailable, e -> stale(animeSnapshot.getPage(key), e))
+                .map(content -> new AnimePage(content, nextCursor(content, pageSize)))
+                .as(page -> reactiveMetrics.timed(METRIC_NAME, "findPage", page));
+    }
+
+    private int pageSize(Integer limit) {
+        AnimeProperties.Pagination pagination = animeProperties.getPagination();
+        return limit == null ? pagination.getDefaultLimit() : Math.min(limit, pagination.getMaxLimit());
+    }
+
+    private Integer nextCursor(List<Anime> content, int pageSize) {
+        return content.size() < pageSize ? null : content.get(content.size() - 1).getId();
+    }
+
+    /**
+     * Ranked name search, answered by the {@link AnimeNameIndex} once it is loaded and by {@code pg_trgm} before.
+     */
+    public Flux<Anime> search(String query, Integer limit) {
+        if (!StringUtils.hasText(query) || query.length() > MAX_QUERY_LENGTH) {
+            return Flux.error(new StatusException(HttpStatus.BAD_REQUEST, "Invalid query"));
+        }
+        if (limit != null && limit < 1) {
+            return Flux.error(new StatusException(HttpStatus.BAD_REQUEST, "Invalid limit"));
+        }
+        int size = pageSize(limit);
+        if (animeNameIndex.isWarm()) {
+            return Flux.defer(() -> Flux.fromIterable(animeNameIndex.search(query, size)))
+                    .as(animes -> reactiveMetrics.timed(METRIC_NAME, "searchIndex", animes));
+        }
+        return animeRepository.searchByName(query, size)
+                .contextWrite(DatabaseRouting::readOnly)
+                .transform(this::guarded)
+                .as(animes -> reactiveMetrics.timed(METRIC_NAME, "searchDatabase", animes));
     }
 
     public Mono<Anime> findById(Integer id) {
-        return animeRepository.findById(id)
-                .switchIfEmpty(monoResponseStatusNotFound());
+        return load(id)
+                .switchIfEmpty(monoResponseStatusNotFound())
+                .as(anime -> reactiveMetrics.timed(METRIC_NAME, "findById", anime));
+    }
+
+    /**
+     * Returns the animes in the order of {@code ids}, each id once, and the ids that do not exist. Ids missing from
+     * the cache are loaded together through the {@link AnimeBatchLoader}.
+     */
+    public Mono<AnimeLookup> findAllById(List<Integer> ids) {
+        if (ids.isEmpty() || ids.size() > animeProperties.getPagination().getMaxLimit()
+                || ids.stream().anyMatch(Objects::isNull)) {
+            return Mono.error(new StatusException(HttpStatus.BAD_REQUEST, "Invalid ids"));
+        }
+        List<Integer> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        return Flux.fromIterable(distinctIds)
+                .flatMapSequential(id -> load(id)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty()))
+                .collectList()
+                .map(results -> {
+                    List<Anime> content = new ArrayList<>(results.size());
+                    List<Integer> missing = new ArrayList<>();
+                    for (int i = 0; i < results.size(); i++) {
+                        if (results.get(i).isPresent()) {
+                            content.add(results.get(i).get());
+                        } else {
+                            missing.add(distinctIds.get(i));
+                        }
+                    }
+                    return new AnimeLookup(content, missing);
+                })
+                .as(lookup -> reactiveMetrics.timed(METRIC_NAME, "findAllById", lookup));
+    }
+
+    /**
+     * Reads through the cache and the {@link AnimeBatchLoader}, and falls back to the snapshot while the database is
+     * unavailable.
+     */
+    private Mono<Anime> load(Integer id) {
+        return animeCache.get(id, key -> animeBatchLoader.load(key).doOnNext(animeSnapshot::put))
+                .onErrorResume(AnimeService::isUnavailable, e -> stale(animeSnapshot.get(id), e));
+    }
+
+    /**
+     * Answers with the snapshot and flags the response as stale, or fails with {@code error} when there is none.
+     */
+    private static <T> Mono<T> stale(Optional<AnimeSnapshot.Entry<T>> snapshot, Throwable error) {
+        return Mono.deferContextual(context -> snapshot
+                .map(entry -> {
+                    Staleness.mark(context, entry.getTakenAt());
+                    return Mono.just(entry.getValue());
+                })
+                .orElseGet(() -> Mono.error(error)));
+    }
+
+    /**
+     * Whether the error says the database is out of reach, rather than that the query itself was wrong or that its
+     * request ran out of time.
+     */
+    private static boolean isUnavailable(Throwable e) {
+        return e instanceof CallNotPermittedException || e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException || e instanceof R2dbcException;
+    }
+
+    /**
+     * Returns the current version of an anime, from the cache when it holds the anime and otherwise without loading
+     * the row.
+     */
+    public Mono<Integer> findVersion(Integer id) {
+        return animeCache.getIfPresent(id)
+                .map(Anime::getVersion)
+                .switchIfEmpty(Mono.defer(() -> animeRepository.findVersionById(id))
+                        .contextWrite(DatabaseRouting::readOnly)
+                        .transform(this::guarded)
+                        .onErrorResume(AnimeService::isUnavailable, e -> stale(animeSnapshot.get(id), e)
+                                .map(Anime::getVersion)))
+                .switchIfEmpty(monoResponseStatusNotFound())
+                .as(version -> reactiveMetrics.timed(METRIC_NAME, "findVersion", version));
+    }
+
+    /**
+     * Runs a query through the circuit breaker, with the failures of a request that ran out of time told apart from
+     * those of the database.
+     */
+    private <T> Mono<T> guarded(Mono<T> query) {
+        return query.transform(Deadline::classifyErrors)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private <T> Flux<T> guarded(Flux<T> query) {
+        return query.transform(Deadline::classifyErrors)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
     }
 
     private <T> Mono<T> monoResponseStatusNotFound() {
-        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return Mono.error(new StatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Fails with 412 when the anime exists but its version is not one of {@code expectedVersions}, with 404 when it
+     * does not exist.
+     */
+    private <T> Mono<T> monoResponseStatusNotFoundOrPreconditionFailed(Integer id,
+                                                                       @Nullable List<Integer> expectedVersions) {
+        if (expectedVersions == null) {
+            return monoResponseStatusNotFound();
+        }
+        animeCache.invalidate(id);
+        return animeRepository.findVersionById(id)
+                .transform(this::guarded)
+                .flatMap(version -> Mono.<T>error(new StatusException(HttpStatus.PRECONDITION_FAILED)))
+                .switchIfEmpty(monoResponseStatusNotFound());
     }
 
     public Mono<Anime> save(Anime anime) {
-        return animeRepository.save(anime);
+        return animeRepository.save(anime)
+                .transform(this::guarded)
+                .doOnNext(this::cacheAndIndex)
+                .as(saved -> reactiveMetrics.timed(METRIC_NAME, "save", saved));
     }
 
-    public Mono<Void> update(Anime anime) {
-        return findById(anime.getId())
-                .flatMap(animeRepository::save)
-                .then();
+    /**
+     * Renames the anime, or only while its version is one of {@code expectedVersions} when they are given, and
+     * returns it with its new version.
+     */
+    public Mono<Anime> update(Anime anime, @Nullable List<Integer> expectedVersions) {
+        Mono<Anime> updated;
+        if (expectedVersions == null) {
+            updated = animeRepository.updateName(anime.getId(), anime.getName());
+        } else if (expectedVersions.isEmpty()) {
+            updated = Mono.empty();
+        } else {
+            updated = animeRepository.updateName(anime.getId(), anime.getName(), expectedVersions);
+        }
+        return updated
+                .transform(this::guarded)
+                .switchIfEmpty(Mono.defer(() -> monoResponseStatusNotFoundOrPreconditionFailed(anime.getId(), expectedVersions)))
+                .doOnNext(this::cacheAndIndex)
+                .as(result -> reactiveMetrics.timed(METRIC_NAME, "update", result));
+    }
+
+    /**
+     * Deletes the anime, or only while its version is one of {@code expectedVersions} when they are given.
+     */
+    public Mono<Void> delete(Integer id, @Nullable List<Integer> expectedVersions) {
+        Mono<Integer> removed;
+        if (expectedVersions == null) {
+            removed = animeRepository.removeById(id);
+        } else if (expectedVersions.isEmpty()) {
+            removed = Mono.just(0);
+        } else {
+            removed = animeRepository.removeById(id, expectedVersions);
+        }
+        return removed
+                .transform(this::guarded)
+                .filter(deleted -> deleted > 0)
+                .switchIfEmpty(Mono.defer(() -> monoResponseStatusNotFoundOrPreconditionFailed(id, expectedVersions)))
+                .doOnNext(deleted -> {
+                    animeCache.invalidate(id);
+                    animeSnapshot.remove(id);
+                    animeNameIndex.remove(id);
+                })
+                .then()
+                .as(deleted -> reactiveMetrics.timed(METRIC_NAME, "delete", deleted));
     }
 
-    public Mono<Void> delete(Integer id) {
-        return findById(id)
-                .flatMap(animeRepository::delete);
+    private void cacheAndIndex(Anime anime) {
+        animeCache.put(anime);
+        animeSnapshot.put(anime);
+        animeNameIndex.put(anime);
     }
 
+    /**
+     * Indexes the animes as they are inserted, and takes them out of the index again when the batch fails.
+     */
     @Transactional
     public Flux<Anime> saveBatch(List<Anime> anime) {
-        return animeRepository.saveAll(anime)
-                .doOnNext(this::throwResponseStatusExceptionWhenEmptyName);
+        return Flux.fromIterable(anime)
+                .doOnNext(this::throwResponseStatusExceptionWhenEmptyName)
+                .thenMany(Flux.defer(() -> {
+                    List<Integer> inserted = new ArrayList<>();
+                    return animeRepository.insertAll(anime)
+                            .transform(this::guarded)
+                            .doOnNext(saved -> {
+                                animeCache.invalidate(saved.getId());
+                                animeNameIndex.put(saved);
+                                inserted.add(saved.getId());
+                            })
+                            .doOnError(e -> inserted.forEach(animeNameIndex::remove));
+                }))
+                .as(saved -> reactiveMetrics.timed(METRIC_NAME, "saveBatch", saved));
+    }
+
+    public Flux<AnimeChunkResult> ingest(Flux<Anime> animes) {
+        int chunkSize = animeProperties.getBatch().getChunkSize();
+        AtomicLong committedChunks = new AtomicLong();
+        return animes
+                .index()
+                .<Anime>handle((row, sink) -> {
+                    if (StringUtils.hasText(row.getT2().getName())) {
+                        sink.next(row.getT2());
+                    } else {
+                        sink.error(new StatusException(HttpStatus.BAD_REQUEST, "Invalid name at row " + row.getT1()));
+                    }
+                })
+                .buffer(chunkSize)
+                // an invalid row only stops the ingest once the chunk being committed is done, committed or not
+                .concatMapDelayError(chunk -> animeRepository.insertAll(chunk)
+                        .collectList()
+                        .as(transactionalOperator::transactional)
+                        .transform(this::guarded)
+                        .doOnNext(inserted -> inserted.forEach(saved -> {
+                            animeCache.invalidate(saved.getId());
+                            animeNameIndex.put(saved);
+                        }))
+                        .map(inserted -> AnimeChunkResult.committed(committedChunks.getAndIncrement(),
+                                inserted.stream().map(Anime::getId).collect(Collectors.toList()))), false, 1)
+                .onErrorResume(ResponseStatusException.class,
+                        e -> Mono.just(AnimeChunkResult.rejected(committedChunks.get(), e.getReason())))
+                .as(results -> reactiveMetrics.timed(METRIC_NAME, "ingest", results));
     }
 
     public void throwResponseStatusExceptionWhenEmptyName(Anime anime) {
         if (!StringUtils.hasText(anime.getName())) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid name");
+            throw new StatusException(HttpStatus.BAD_REQUEST, "Invalid name");
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.robsonkades.springwebflux.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.stereotype.Component;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.domain.Anime;
+
+/**
+ * Last known good copies of the animes and listing pages read from the database, served while it is unavailable.
+ * Unlike {@link AnimeCache} nothing expires with time: entries are replaced by fresher reads, dropped when the anime
+ * is deleted, or evicted by size.
+ */
+@Component
+public class AnimeSnapshot {
+
+    private final Cache<Integer, Entry<Anime>> animes;
+
+    private final Cache<List<Integer>, Entry<List<Anime>>> pages;
+
+    public AnimeSnapshot(AnimeProperties animeProperties) {
+        this.animes = Caffeine.newBuilder()
+                .maximumSize(animeProperties.getSnapshot().getMaximumSize())
+                .build();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(animeProperties.getSnapshot().getMaximumPages())
+                .build();
+    }
+
+    public void put(Anime anime) {
+        animes.put(anime.getId(), new Entry<>(anime, Instant.now()));
+    }
+
+    public void remove(Integer id) {
+        animes.invalidate(id);
+    }
+
+    public Optional<Entry<Anime>> get(Integer id) {
+        return Optional.ofNullable(animes.getIfPresent(id));
+    }
+
+    public void putPage(List<Integer> key, List<Anime> content) {
+        pages.put(key, new Entry<>(content, Instant.now()));
+    }
+
+    public Optional<Entry<List<Anime>>> getPage(List<Integer> key) {
+        return Optional.ofNullable(pages.getIfPresent(key));
+    }
+
+    @Value
+    public static class Entry<T> {
+
+        T value;
+
+        Instant takenAt;
+    }
+}
@@ -0,0 +1,110 @@
+package com.robsonkades.springwebflux.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects single-key loads into one {@link #loadAll} call, DataLoader style. A batch is sent once the first key in it
+ * has waited for the window, or as soon as it holds {@code maxSize} distinct keys; a zero window sends every load on
+ * its own. The batch is a {@link SharedCall} started with the context of its first caller: a caller that cancels only
+ * stops waiting, and the batch is cancelled once all of them have. Keys without a value complete empty.
+ * <p>
+ * Publishes {@code batchloader.size} (tag: name), the number of keys per batch.
+ */
+public abstract class BatchLoader<K, V> {
+
+    private final Duration window;
+
+    private final int maxSize;
+
+    private final DistributionSummary batchSize;
+
+    private Batch<K, V> pending;
+
+    protected BatchLoader(String name, Duration window, int maxSize, MeterRegistry meterRegistry) {
+        this.window = window;
+        this.maxSize = maxSize;
+        this.batchSize = DistributionSummary.builder("batchloader.size")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the values of the keys, in any order; keys without a value are left out.
+     */
+    protected abstract Flux<V> loadAll(List<K> keys);
+
+    protected abstract K keyOf(V value);
+
+    public Mono<V> load(K key) {
+        return Mono.deferContextual(context -> {
+            Batch<K, V> batch;
+            Batch<K, V> started = null;
+            Batch<K, V> full = null;
+            synchronized (this) {
+                if (pending == null || !pending.call.addWaiter()) {
+                    pending = new Batch<>(context);
+                    pending.call.addWaiter();
+                    started = pending;
+                }
+                batch = pending;
+                batch.keys.add(key);
+                if (batch.keys.size() >= maxSize || window.isZero()) {
+                    full = batch;
+                    pending = null;
+                }
+            }
+            if (full != null) {
+                dispatch(full);
+            } else if (started != null) {
+                Batch<K, V> flushed = started;
+                Schedulers.parallel().schedule(() -> flush(flushed), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            return batch.call.await();
+        }).flatMap(values -> Mono.justOrEmpty(values.get(key)));
+    }
+
+    private void flush(Batch<K, V> batch) {
+        synchronized (this) {
+            if (pending != batch) {
+                return;
+            }
+            pending = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        if (batch.call.isDone()) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(batch.keys);
+        batchSize.record(keys.size());
+        batch.call.start(Mono.defer(() -> loadAll(keys).collectMap(this::keyOf)), batch.context);
+    }
+
+    private static final class Batch<K, V> {
+
+        private final Set<K> keys = new LinkedHashSet<>();
+
+        private final SharedCall<Map<K, V>> call = new SharedCall<>();
+
+        private final ContextView context;
+
+        private Batch(ContextView context) {
+            this.context = context;
+        }
+    }
+}
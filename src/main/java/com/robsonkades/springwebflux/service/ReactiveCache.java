@@ -0,0 +1,124 @@
+package com.robsonkades.springwebflux.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class ReactiveCache<K, V> {
+
+    private final AsyncCache<K, Optional<V>> cache;
+
+    private final Counter executed;
+
+    private final Counter coalesced;
+
+    public ReactiveCache(String name, long maximumSize, Duration ttl, Duration negativeTtl, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new OptionalExpiry<K, V>(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), name);
+        this.executed = SingleFlight.callCounter(meterRegistry, name, "executed");
+        this.coalesced = SingleFlight.callCounter(meterRegistry, name, "coalesced");
+    }
+
+    /**
+     * Returns the cached value, or subscribes to {@code loader} once for all concurrent callers of the same key, like
+     * {@link SingleFlight} and with the same metrics. Empty results are cached as well, for the shorter negative TTL.
+     */
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return Mono.deferContextual(context -> {
+            while (true) {
+                boolean[] loading = new boolean[1];
+                CompletableFuture<Optional<V>> value = cache.get(key, (k, executor) -> {
+                    loading[0] = true;
+                    SharedCall<Optional<V>> call = new SharedCall<>();
+                    call.addWaiter();
+                    call.start(loader.apply(k)
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty()), context);
+                    return call;
+                });
+                if (loading[0]) {
+                    executed.increment();
+                }
+                if (value.isCancelled()) {
+                    // its callers all gave up before it completed
+                    cache.asMap().remove(key, value);
+                    continue;
+                }
+                if (value.isDone()) {
+                    return Mono.fromFuture(value);
+                }
+                // only loads are cached before they are done
+                @SuppressWarnings("unchecked")
+                SharedCall<Optional<V>> call = (SharedCall<Optional<V>>) value;
+                if (loading[0]) {
+                    return call.await();
+                }
+                if (call.addWaiter()) {
+                    coalesced.increment();
+                    return call.await();
+                }
+                cache.asMap().remove(key, call);
+            }
+        }).flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Returns the cached value without loading it; empty when the key is absent, still loading or cached as missing.
+     */
+    public Mono<V> getIfPresent(K key) {
+        return Mono.defer(() -> {
+            CompletableFuture<Optional<V>> value = cache.getIfPresent(key);
+            return value == null || !value.isDone() || value.isCompletedExceptionally()
+                    ? Mono.empty()
+                    : Mono.justOrEmpty(value.join());
+        });
+    }
+
+    public void put(K key, V value) {
+        cache.put(key, CompletableFuture.completedFuture(Optional.of(value)));
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    private static class OptionalExpiry<K, V> implements Expiry<K, Optional<V>> {
+
+        private final long ttl;
+
+        private final long negativeTtl;
+
+        private OptionalExpiry(long ttl, long negativeTtl) {
+            this.ttl = ttl;
+            this.negativeTtl = negativeTtl;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, Optional<V> value, long currentTime) {
+            return value.isPresent() ? ttl : negativeTtl;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Optional<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.robsonkades.springwebflux.service;
+
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.robsonkades.springwebflux.deadline.Deadline;
+
+/**
+ * The result of a call that several callers wait for, as in {@link SingleFlight}, {@link ReactiveCache} and
+ * {@link BatchLoader}. The call is subscribed to on its own, with the context of the caller that starts it but without
+ * its {@link Deadline}, since the others may have more time left. A caller that cancels only stops waiting, and once
+ * every caller has cancelled, the call is cancelled too, so its query stops and its connection is released.
+ */
+final class SharedCall<T> extends CompletableFuture<T> {
+
+    /**
+     * Callers waiting for the result, or -1 once the call was cancelled for lack of them.
+     */
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private final Disposable.Swap subscription = Disposables.swap();
+
+    /**
+     * Adds a caller to wait for the result; false once the call was cancelled, and the caller has to start a new one.
+     */
+    boolean addWaiter() {
+        while (true) {
+            int current = waiters.get();
+            if (current < 0) {
+                return false;
+            }
+            if (waiters.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void start(Mono<T> source, ContextView context) {
+        subscription.update(source
+                .contextWrite(Context.of(context).delete(Deadline.CONTEXT_KEY))
+                .subscribe(this::complete, this::completeExceptionally, () -> complete(null)));
+    }
+
+    /**
+     * Waits for the result, as a caller counted by {@link #addWaiter}.
+     */
+    Mono<T> await() {
+        // a copy, so that cancelling this caller does not complete the result the others wait for
+        CompletableFuture<T> result = copy();
+        return Mono.fromFuture(result).doFinally(signal -> {
+            // done first, so that cancelling the call does not signal this caller that no longer listens
+            result.cancel(false);
+            leave();
+        });
+    }
+
+    private void leave() {
+        if (waiters.decrementAndGet() == 0 && !isDone() && waiters.compareAndSet(0, -1)) {
+            subscription.dispose();
+            cancel(false);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.robsonkades.springwebflux.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Shares one in-flight call between all concurrent callers with the same key. The call is a {@link SharedCall}: a
+ * caller that cancels only stops waiting, and the call is cancelled once all of them have. Nothing is kept once the
+ * call completes, so a caller arriving afterwards starts a new one.
+ * <p>
+ * Publishes {@code singleflight.calls} (tags: name, outcome {@code executed} or {@code coalesced}) and the
+ * {@code singleflight.inflight} gauge.
+ */
+public class SingleFlight<K, V> {
+
+    static final String CALLS_METRIC = "singleflight.calls";
+
+    private final Map<K, SharedCall<Optional<V>>> calls = new ConcurrentHashMap<>();
+
+    private final Counter executed;
+
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = callCounter(meterRegistry, name, "executed");
+        this.coalesced = callCounter(meterRegistry, name, "coalesced");
+        Gauge.builder("singleflight.inflight", calls, Map::size)
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Function<K, Mono<V>> loader) {
+        return Mono.deferContextual(context -> {
+            while (true) {
+                SharedCall<Optional<V>> created = new SharedCall<>();
+                SharedCall<Optional<V>> call = calls.putIfAbsent(key, created);
+                if (call == null) {
+                    executed.increment();
+                    created.addWaiter();
+                    created.whenComplete((value, e) -> calls.remove(key, created));
+                    created.start(Mono.defer(() -> loader.apply(key))
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty()), context);
+                    return created.await();
+                }
+                if (call.addWaiter()) {
+                    coalesced.increment();
+                    return call.await();
+                }
+                calls.remove(key, call);
+            }
+        }).flatMap(Mono::justOrEmpty);
+    }
+
+    static Counter callCounter(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder(CALLS_METRIC)
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
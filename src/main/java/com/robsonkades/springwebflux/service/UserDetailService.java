@@ -1,25 +1,41 @@
 package com.robsonkades.springwebflux.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import reactor.core.publisher.Mono;
 
 import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.robsonkades.springwebflux.config.AuthProperties;
+import com.robsonkades.springwebflux.domain.User;
 import com.robsonkades.springwebflux.repository.UserRepository;
+import com.robsonkades.springwebflux.routing.DatabaseRouting;
 
-@RequiredArgsConstructor
+/**
+ * Looks users up through a cache that entries leave only by expiring, since the application never writes the
+ * {@code users} table. A password or role changed directly in the database therefore takes effect within
+ * {@code auth.user-cache.ttl}, which also bounds how long
+ * {@link com.robsonkades.springwebflux.config.CredentialCacheAuthenticationManager} keeps honoring a verification of
+ * the old password.
+ */
 @Service
 public class UserDetailService implements ReactiveUserDetailsService {
 
     private final UserRepository userRepository;
 
+    private final ReactiveCache<String, User> users;
+
+    public UserDetailService(UserRepository userRepository, AuthProperties authProperties, MeterRegistry meterRegistry) {
+        AuthProperties.CacheSpec userCache = authProperties.getUserCache();
+        this.userRepository = userRepository;
+        this.users = new ReactiveCache<>("users", userCache.getMaximumSize(), userCache.getTtl(), userCache.getTtl(), meterRegistry);
+    }
+
     @Override
     public Mono<UserDetails> findByUsername(String username) {
-        return userRepository
-                .findByUsername(username)
-                .log()
+        return users.get(username, key -> userRepository.findByUsername(key)
+                        .contextWrite(DatabaseRouting::readOnly))
                 .cast(UserDetails.class);
     }
 }
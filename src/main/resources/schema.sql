@@ -0,0 +1,39 @@
+CREATE TABLE IF NOT EXISTS anime
+(
+    id   SERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+-- Optimistic locking: bumped by every update, exposed as the ETag of the anime
+ALTER TABLE anime ADD COLUMN IF NOT EXISTS version INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS users
+(
+    id          SERIAL PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    username    VARCHAR(255) NOT NULL UNIQUE,
+    password    VARCHAR(255) NOT NULL,
+    authorities VARCHAR(255) NOT NULL
+);
+
+-- Name search falls back to trigram similarity while the in-process index is loading
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS anime_name_trgm_idx ON anime USING gin (name gin_trgm_ops);
+
+-- Change feed: every row change is sent to the channel named by the trigger argument, which has to match
+-- anime.changes.channel; the listener checks it when it connects.
+-- The function body is quoted rather than dollar-quoted so the script splitter keeps it in one statement.
+CREATE OR REPLACE FUNCTION notify_anime_change() RETURNS trigger AS '
+DECLARE
+    changed anime;
+BEGIN
+    changed := CASE TG_OP WHEN ''DELETE'' THEN OLD ELSE NEW END;
+    PERFORM pg_notify(TG_ARGV[0], json_build_object(
+            ''type'', TG_OP, ''id'', changed.id, ''name'', changed.name, ''version'', changed.version)::text);
+    RETURN NULL;
+END
+' LANGUAGE plpgsql;
+
+CREATE OR REPLACE TRIGGER anime_changes
+    AFTER INSERT OR UPDATE OR DELETE ON anime
+    FOR EACH ROW EXECUTE FUNCTION notify_anime_change('anime_changes');
@@ -0,0 +1,231 @@
+package com.robsonkades.springwebflux;
+
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChange;
+import com.robsonkades.springwebflux.domain.AnimeLookup;
+import com.robsonkades.springwebflux.util.WebTestClientUtil;
+
+@SpringBootTest
+@ActiveProfiles("memory")
+@AutoConfigureMetrics
+@AutoConfigureWebTestClient
+class MemoryProfileApplicationTests {
+
+    @Autowired
+    private WebTestClientUtil webTestClientUtil;
+
+    @Autowired
+    private WebTestClient anonymousClient;
+
+    @Test
+    void createAndFindById_WithoutDatabase() {
+        WebTestClient client = webTestClientUtil.authenticateClient("admin", "admin");
+
+        Anime created = client.post()
+                .uri("/animes")
+                .bodyValue(Anime.builder().name("Naruto").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Anime.class)
+                .returnResult()
+                .getResponseBody();
+
+        client.get()
+                .uri("/animes/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Anime.class)
+                .isEqualTo(created);
+    }
+
+    @Test
+    void readiness_IsReadableWithoutCredentials() {
+        anonymousClient.get()
+                .uri("/actuator/health/readiness")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("UP");
+
+        anonymousClient.get()
+                .uri("/actuator/metrics")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void prometheus_PublishesServiceHistogram_FromConfiguration() {
+        WebTestClient client = webTestClientUtil.authenticateClient("admin", "admin");
+        client.get()
+                .uri("/animes/{id}", Integer.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        client.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(scrape -> Assertions.assertThat(scrape).contains("anime_service_seconds_bucket{"));
+    }
+
+    @Test
+    void findById_ReturnsProblemBody_WhenAnimeDoesNotExist() {
+        webTestClientUtil.authenticateClient("admin", "admin")
+                .get()
+                .uri("/animes/{id}", Integer.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectBody()
+                .json("{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404}", true);
+    }
+
+    @Test
+    void findAllById_ReturnsAnimesInRequestOrder_WithMissingIds() {
+        WebTestClient client = webTestClientUtil.authenticateClient("admin", "admin");
+        List<Anime> created = client.post()
+                .uri("/animes/batch")
+                .bodyValue(List.of(Anime.builder().name("Bleach").build(), Anime.builder().name("Naruto").build()))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(Anime.class)
+                .returnResult()
+                .getResponseBody();
+
+        client.get()
+                .uri("/animes?ids={second},{missing},{first}",
+                        created.get(1).getId(), Integer.MAX_VALUE, created.get(0).getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AnimeLookup.class)
+                .isEqualTo(new AnimeLookup(List.of(created.get(1), created.get(0)), List.of(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void changes_StreamsWritesAsServerSentEvents() {
+        WebTestClient client = webTestClientUtil.authenticateClient("admin", "admin");
+        Flux<ServerSentEvent<AnimeChange>> changes = client.get()
+                .uri("/animes/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<AnimeChange>>() {
+                })
+                .getResponseBody()
+                .filter(event -> event.event() != null);
+
+        StepVerifier.create(changes)
+                .then(() -> client.post()
+                        .uri("/animes")
+                        .bodyValue(Anime.builder().name("Changes").build())
+                        .exchange()
+                        .expectStatus().isCreated())
+                .assertNext(event -> {
+                    Assertions.assertThat(event.event()).isEqualTo("insert");
+                    Assertions.assertThat(event.data().getName()).isEqualTo("Changes");
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void createAndFindById_InCbor() throws Exception {
+        WebTestClient client = webTestClientUtil.authenticateClient("admin", "admin");
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+        byte[] created = client.post()
+                .uri("/animes")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(cborMapper.writeValueAsBytes(Anime.builder().name("Bleach").build()))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        Anime anime = cborMapper.readValue(created, Anime.class);
+
+        client.get()
+                .uri("/animes/{id}", anime.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody(Anime.class)
+                .isEqualTo(anime.withName("Bleach"));
+    }
+
+    @Test
+    void batch_WritesCborArray_WhenCborIsAccepted() throws Exception {
+        WebTestClient client = webTestClientUtil.authenticateClient("admin", "admin");
+
+        byte[] created = client.post()
+                .uri("/animes/batch")
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(List.of(Anime.builder().name("Bleach").build(), Anime.builder().name("Naruto").build()))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        List<Anime> animes = new ObjectMapper(new CBORFactory()).readValue(created, new TypeReference<List<Anime>>() {
+        });
+        Assertions.assertThat(animes).extracting(Anime::getName).containsExactly("Bleach", "Naruto");
+    }
+
+    @Test
+    void listAll_CompressesWithBrotli_WhenBrIsAccepted() throws Exception {
+        WebTestClient client = webTestClientUtil.authenticateClient("admin", "admin");
+        client.post()
+                .uri("/animes/batch")
+                .bodyValue(IntStream.range(0, 100)
+                        .mapToObj(i -> Anime.builder().name("Anime " + i).build())
+                        .collect(Collectors.toList()))
+                .exchange()
+                .expectStatus().isCreated();
+
+        byte[] compressed = client.get()
+                .uri("/animes?limit=100")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, br")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "br")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        List<Anime> animes = new ObjectMapper().readValue(Decoder.decompress(compressed).getDecompressedData(),
+                new TypeReference<List<Anime>>() {
+                });
+        Assertions.assertThat(animes).hasSize(100);
+    }
+}
@@ -3,7 +3,7 @@ package com.robsonkades.springwebflux;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.sql.init.mode=never")
 class SpringWebfluxApplicationTests {
 
     @Test
@@ -0,0 +1,99 @@
+package com.robsonkades.springwebflux.changes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.domain.AnimeChange;
+
+class AnimeChangeFeedTest {
+
+    private final AnimeChange naruto = new AnimeChange(AnimeChange.Type.INSERT, 1, "Naruto", 0);
+
+    private final AnimeChange bleach = new AnimeChange(AnimeChange.Type.INSERT, 2, "Bleach", 0);
+
+    private final AnimeChange deleted = new AnimeChange(AnimeChange.Type.DELETE, 1, "Naruto", 0);
+
+    @Test
+    @DisplayName("subscribe sends a heartbeat at once and then the changes published after it")
+    public void subscribe_ReceivesChanges_WhenPublished() {
+        AnimeChangeFeed feed = feed(1024);
+        feed.publish(naruto);
+
+        StepVerifier.create(feed.subscribe(null))
+                .assertNext(event -> Assertions.assertThat(event.comment()).isEqualTo("heartbeat"))
+                .then(() -> feed.publish(bleach))
+                .assertNext(event -> {
+                    Assertions.assertThat(event.event()).isEqualTo("insert");
+                    Assertions.assertThat(event.data()).isEqualTo(bleach);
+                    Assertions.assertThat(event.id()).endsWith("-2");
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("subscribe replays the changes after Last-Event-ID and resets subscribers with an unknown id")
+    public void subscribe_ReplaysMissedChanges_WhenResuming() {
+        AnimeChangeFeed feed = feed(1024);
+        feed.publish(naruto);
+        ServerSentEvent<AnimeChange> reset = feed.subscribe("another-instance-7").blockFirst(Duration.ofSeconds(5));
+        Assertions.assertThat(reset.event()).isEqualTo(AnimeChangeFeed.RESET);
+
+        feed.publish(bleach);
+        feed.publish(deleted);
+
+        StepVerifier.create(feed.subscribe(reset.id()))
+                .assertNext(event -> Assertions.assertThat(event.data()).isEqualTo(bleach))
+                .assertNext(event -> {
+                    Assertions.assertThat(event.event()).isEqualTo("delete");
+                    Assertions.assertThat(event.data()).isEqualTo(deleted);
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("subscribe resets a subscriber whose Last-Event-ID fell out of the replay ring")
+    public void subscribe_SendsReset_WhenLastEventIdWasEvicted() {
+        AnimeChangeFeed feed = feed(2);
+        feed.publish(naruto);
+        String lastEventId = feed.subscribe("unknown").blockFirst(Duration.ofSeconds(5)).id();
+        feed.publish(bleach);
+        feed.publish(deleted);
+        feed.publish(bleach);
+
+        StepVerifier.create(feed.subscribe(lastEventId))
+                .assertNext(event -> {
+                    Assertions.assertThat(event.event()).isEqualTo(AnimeChangeFeed.RESET);
+                    Assertions.assertThat(event.id()).endsWith("-4");
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("subscribe sends a heartbeat comment every interval while there are no changes")
+    public void subscribe_SendsHeartbeats_WhenIdle() {
+        StepVerifier.withVirtualTime(() -> feed(1024).subscribe(null))
+                .assertNext(event -> Assertions.assertThat(event.comment()).isEqualTo("heartbeat"))
+                .expectNoEvent(Duration.ofSeconds(14))
+                .thenAwait(Duration.ofSeconds(1))
+                .assertNext(event -> Assertions.assertThat(event.comment()).isEqualTo("heartbeat"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static AnimeChangeFeed feed(int replaySize) {
+        AnimeProperties animeProperties = new AnimeProperties();
+        animeProperties.getChanges().setReplaySize(replaySize);
+        return new AnimeChangeFeed(animeProperties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,134 @@
+package com.robsonkades.springwebflux.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.robsonkades.springwebflux.domain.User;
+import com.robsonkades.springwebflux.service.UserDetailService;
+
+@ExtendWith(SpringExtension.class)
+public class CredentialCacheAuthenticationManagerTest {
+
+    @Mock
+    private ReactiveAuthenticationManager delegate;
+
+    @Mock
+    private UserDetailService userDetailService;
+
+    private CredentialCacheAuthenticationManager authenticationManager;
+
+    private final User user = new User(1, "Admin", "admin", "{bcrypt}hash", "ROLE_ADMIN,ROLE_USER");
+
+    private final Authentication authenticated = new UsernamePasswordAuthenticationToken(user, user.getPassword(), user.getAuthorities());
+
+    @BeforeEach
+    public void each() {
+        authenticationManager = new CredentialCacheAuthenticationManager(delegate, userDetailService,
+                new AuthProperties().getCredentialCache(), new SimpleMeterRegistry());
+
+        BDDMockito
+                .when(delegate.authenticate(ArgumentMatchers.any()))
+                .thenReturn(Mono.just(authenticated));
+
+        BDDMockito
+                .when(userDetailService.findByUsername("admin"))
+                .thenReturn(Mono.just(user));
+    }
+
+    @Test
+    @DisplayName("authenticate verifies the password only once for repeated credentials")
+    public void authenticate_SkipsVerification_WhenCredentialsWereVerified() {
+        StepVerifier.create(authenticate("admin").then(authenticate("admin")))
+                .expectSubscription()
+                .expectNext(authenticated)
+                .verifyComplete();
+
+        BDDMockito.verify(delegate, BDDMockito.times(1)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("authenticate verifies again when the password differs from the cached one")
+    public void authenticate_VerifiesAgain_WhenPasswordDiffers() {
+        StepVerifier.create(authenticate("admin").then(authenticate("other")))
+                .expectSubscription()
+                .expectNext(authenticated)
+                .verifyComplete();
+
+        BDDMockito.verify(delegate, BDDMockito.times(2)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("authenticate verifies again when the stored password hash changed")
+    public void authenticate_VerifiesAgain_WhenStoredPasswordChanged() {
+        StepVerifier.create(authenticate("admin"))
+                .expectNext(authenticated)
+                .verifyComplete();
+
+        BDDMockito
+                .when(userDetailService.findByUsername("admin"))
+                .thenReturn(Mono.just(new User(1, "Admin", "admin", "{bcrypt}changed", "ROLE_ADMIN")));
+
+        StepVerifier.create(authenticate("admin"))
+                .expectNext(authenticated)
+                .verifyComplete();
+
+        BDDMockito.verify(delegate, BDDMockito.times(2)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("authenticate reuses a verification with the current roles of the user")
+    public void authenticate_ReturnsCurrentRoles_WhenRoleChanged() {
+        StepVerifier.create(authenticate("admin"))
+                .expectNext(authenticated)
+                .verifyComplete();
+
+        BDDMockito
+                .when(userDetailService.findByUsername("admin"))
+                .thenReturn(Mono.just(new User(1, "Admin", "admin", "{bcrypt}hash", "ROLE_USER")));
+
+        StepVerifier.create(authenticate("admin"))
+                .assertNext(result -> Assertions.assertThat(result.getAuthorities())
+                        .extracting(GrantedAuthority::getAuthority)
+                        .containsExactly("ROLE_USER"))
+                .verifyComplete();
+
+        BDDMockito.verify(delegate, BDDMockito.times(1)).authenticate(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("authenticate shares one verification between concurrent requests with the same credentials")
+    public void authenticate_SharesVerification_WhenRequestsAreConcurrent() {
+        Sinks.One<Authentication> verification = Sinks.one();
+        BDDMockito
+                .when(delegate.authenticate(ArgumentMatchers.any()))
+                .thenReturn(verification.asMono());
+
+        StepVerifier.create(Mono.zip(authenticate("admin"), authenticate("admin")))
+                .expectSubscription()
+                .then(() -> verification.tryEmitValue(authenticated))
+                .expectNextMatches(results -> results.getT1() == authenticated && results.getT2() == authenticated)
+                .verifyComplete();
+
+        BDDMockito.verify(delegate, BDDMockito.times(1)).authenticate(ArgumentMatchers.any());
+    }
+
+    private Mono<Authentication> authenticate(String password) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken("admin", password));
+    }
+}
@@ -0,0 +1,93 @@
+package com.robsonkades.springwebflux.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.robsonkades.springwebflux.deadline.Deadline;
+
+@ExtendWith(SpringExtension.class)
+public class DeadlineConnectionFactoryTest {
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private Result result;
+
+    private DeadlineConnectionFactory deadlineConnectionFactory;
+
+    @BeforeEach
+    public void setUp() {
+        BDDMockito.when(connectionFactory.create()).thenAnswer(invocation -> Mono.just(connection));
+        BDDMockito.when(connection.createStatement(ArgumentMatchers.anyString())).thenReturn(statement);
+        BDDMockito.when(statement.execute()).thenAnswer(invocation -> Mono.just(result));
+        BDDMockito.when(result.getRowsUpdated()).thenAnswer(invocation -> Mono.just(0));
+        deadlineConnectionFactory = new DeadlineConnectionFactory(connectionFactory);
+    }
+
+    @Test
+    @DisplayName("create sets the statement timeout to the time left, and resets it for a request without deadline")
+    public void create_SetsStatementTimeout_WhenRequestHasDeadline() {
+        StepVerifier.create(create(Deadline.after(Duration.ofSeconds(2))))
+                .expectNext(connection)
+                .verifyComplete();
+        BDDMockito.verify(connection).createStatement("SET statement_timeout = 2000");
+
+        StepVerifier.create(deadlineConnectionFactory.create().then(deadlineConnectionFactory.create()))
+                .expectNext(connection)
+                .verifyComplete();
+        BDDMockito.verify(connection, BDDMockito.times(1)).createStatement("SET statement_timeout TO DEFAULT");
+    }
+
+    @Test
+    @DisplayName("create sends no statement for a request whose rounded timeout the connection already has")
+    public void create_SkipsStatementTimeout_WhenConnectionHasSameTimeout() {
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(create(Deadline.after(Duration.ofSeconds(2))))
+                    .expectNext(connection)
+                    .verifyComplete();
+        }
+        BDDMockito.verify(connection, BDDMockito.times(1)).createStatement(ArgumentMatchers.anyString());
+
+        StepVerifier.create(create(Deadline.after(Duration.ofSeconds(5))))
+                .expectNext(connection)
+                .verifyComplete();
+        BDDMockito.verify(connection).createStatement("SET statement_timeout = 5000");
+        BDDMockito.verify(connection, BDDMockito.times(2)).createStatement(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    @DisplayName("create fails without taking a connection once the deadline has passed")
+    public void create_ReturnsError_WhenDeadlineHasPassed() {
+        StepVerifier.create(create(Deadline.after(Duration.ZERO)))
+                .verifyError(R2dbcTimeoutException.class);
+
+        BDDMockito.verify(connectionFactory, BDDMockito.never()).create();
+    }
+
+    private Mono<Connection> create(Deadline deadline) {
+        return deadlineConnectionFactory.create().contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline));
+    }
+}
@@ -0,0 +1,122 @@
+package com.robsonkades.springwebflux.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import io.r2dbc.spi.ValidationDepth;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+public class MeteredConnectionFactoryTest {
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private ConnectionFactory failingConnectionFactory;
+
+    @Mock
+    private Connection connection;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConnectionPool pool;
+
+    private MeteredConnectionFactory meteredConnectionFactory;
+
+    @BeforeEach
+    public void setUp() {
+        BDDMockito.when(connectionFactory.create()).thenAnswer(invocation -> Mono.just(connection));
+        BDDMockito.when(connection.validate(ArgumentMatchers.any(ValidationDepth.class)))
+                .thenAnswer(invocation -> Mono.just(true));
+        BDDMockito.when(connection.close()).thenAnswer(invocation -> Mono.empty());
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(0)
+                .maxSize(1)
+                .build());
+        meteredConnectionFactory = new MeteredConnectionFactory(pool, "test", meterRegistryProvider());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        meteredConnectionFactory.dispose();
+    }
+
+    @Test
+    @DisplayName("create records the time spent waiting for a connection, by outcome")
+    public void create_RecordsAcquireTime_WhenConnectionIsAcquiredOrFails() {
+        BDDMockito.when(failingConnectionFactory.create())
+                .thenAnswer(invocation -> Mono.error(new R2dbcNonTransientResourceException("Connection refused")));
+        MeteredConnectionFactory failing =
+                new MeteredConnectionFactory(failingConnectionFactory, "failing", meterRegistryProvider());
+
+        StepVerifier.create(meteredConnectionFactory.create())
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(failing.create())
+                .expectError(R2dbcNonTransientResourceException.class)
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(acquireCount("test", "success")).isEqualTo(1);
+        Assertions.assertThat(acquireCount("failing", "error")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("create records a cancelled wait once, and the pool hands the connection on to the next caller")
+    public void create_RecordsCancelledAcquire_WhenCallerCancelsWhilePoolIsExhausted() {
+        Connection held = meteredConnectionFactory.create().block(Duration.ofSeconds(5));
+
+        StepVerifier.create(meteredConnectionFactory.create())
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertThat(metrics().pendingAcquireSize()).isZero();
+
+        Mono.from(held.close()).block(Duration.ofSeconds(5));
+        Assertions.assertThat(metrics().acquiredSize()).isZero();
+        StepVerifier.create(meteredConnectionFactory.create())
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(acquireCount("test", "cancelled")).isEqualTo(1);
+        Assertions.assertThat(acquireCount("test", "success")).isEqualTo(2);
+    }
+
+    private PoolMetrics metrics() {
+        return pool.getMetrics().orElseThrow();
+    }
+
+    private long acquireCount(String name, String outcome) {
+        return meterRegistry.get("r2dbc.pool.acquire").tag("name", name).tag("outcome", outcome).timer().count();
+    }
+
+    private ObjectProvider<MeterRegistry> meterRegistryProvider() {
+        return new StaticListableBeanFactory(Collections.singletonMap("meterRegistry", meterRegistry))
+                .getBeanProvider(MeterRegistry.class);
+    }
+}
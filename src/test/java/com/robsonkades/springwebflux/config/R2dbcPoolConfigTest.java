@@ -0,0 +1,137 @@
+package com.robsonkades.springwebflux.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ValidationDepth;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+public class R2dbcPoolConfigTest {
+
+    private static final int INITIAL_SIZE = 3;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private Connection connection;
+
+    private final AtomicInteger opened = new AtomicInteger();
+
+    private final DatabaseProperties databaseProperties = new DatabaseProperties();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConnectionPool pool;
+
+    private ConnectionPool replicaPool;
+
+    private ConnectionFactory decorated;
+
+    @BeforeEach
+    public void setUp() {
+        BDDMockito.when(connectionFactory.create()).thenAnswer(invocation -> Mono.fromCallable(() -> {
+            opened.incrementAndGet();
+            return connection;
+        }));
+        BDDMockito.when(connection.validate(ArgumentMatchers.any(ValidationDepth.class)))
+                .thenAnswer(invocation -> Mono.just(true));
+        BDDMockito.when(connection.close()).thenAnswer(invocation -> Mono.empty());
+        pool = pool();
+        replicaPool = pool();
+        decorated = decorate(pool, "test");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.dispose();
+        replicaPool.dispose();
+    }
+
+    @Test
+    @DisplayName("connectionPoolWarmup opens the initial connections of the pool behind the decorators")
+    public void connectionPoolWarmup_OpensInitialConnections_WhenEnabled() throws Exception {
+        warmup();
+
+        Assertions.assertThat(opened).hasValue(INITIAL_SIZE);
+        Assertions.assertThat(pool.getMetrics().orElseThrow().idleSize()).isEqualTo(INITIAL_SIZE);
+    }
+
+    @Test
+    @DisplayName("connectionPoolWarmup leaves the pool empty when disabled")
+    public void connectionPoolWarmup_OpensNoConnection_WhenDisabled() throws Exception {
+        databaseProperties.getWarmup().setEnabled(false);
+
+        warmup();
+
+        Assertions.assertThat(opened).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("connectionPoolWarmup and replicaConnectionPoolMetrics cover the replica pools behind the routing")
+    public void connectionPoolWarmup_OpensReplicaConnections_WhenReplicasAreConfigured() throws Exception {
+        DatabaseProperties.Replicas replicas = new DatabaseProperties.Replicas();
+        replicas.setHealthCheckInterval(Duration.ofHours(1));
+        ReplicaRoutingConnectionFactory routing = new ReplicaRoutingConnectionFactory(decorated,
+                Collections.singletonMap("replica-0", decorate(replicaPool, "replica-0")), replicas);
+        decorated = routing;
+        try {
+            new R2dbcPoolConfig().replicaConnectionPoolMetrics(provider(ConnectionFactory.class, routing))
+                    .bindTo(meterRegistry);
+
+            warmup();
+
+            Assertions.assertThat(opened).hasValue(2 * INITIAL_SIZE);
+            Assertions.assertThat(replicaPool.getMetrics().orElseThrow().idleSize()).isEqualTo(INITIAL_SIZE);
+            Assertions.assertThat(meterRegistry.get("r2dbc.pool.idle").tag("name", "replica-0").gauge().value())
+                    .isEqualTo(INITIAL_SIZE);
+        } finally {
+            routing.dispose();
+        }
+    }
+
+    private ConnectionPool pool() {
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(INITIAL_SIZE)
+                .maxSize(10)
+                .build());
+    }
+
+    private ConnectionFactory decorate(ConnectionPool pool, String name) {
+        return new DeadlineConnectionFactory(
+                new MeteredConnectionFactory(pool, name, provider(MeterRegistry.class, meterRegistry)));
+    }
+
+    private void warmup() throws Exception {
+        new R2dbcPoolConfig()
+                .connectionPoolWarmup(provider(ConnectionFactory.class, decorated), databaseProperties)
+                .run(new DefaultApplicationArguments());
+    }
+
+    private static <T> ObjectProvider<T> provider(Class<T> type, T bean) {
+        return new StaticListableBeanFactory(Collections.singletonMap(type.getSimpleName(), bean))
+                .getBeanProvider(type);
+    }
+}
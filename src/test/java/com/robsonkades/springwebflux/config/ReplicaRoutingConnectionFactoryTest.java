@@ -0,0 +1,115 @@
+package com.robsonkades.springwebflux.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.robsonkades.springwebflux.routing.DatabaseRouting;
+
+@ExtendWith(SpringExtension.class)
+public class ReplicaRoutingConnectionFactoryTest {
+
+    @Mock
+    private ConnectionFactory primary;
+
+    @Mock
+    private ConnectionFactory replica1;
+
+    @Mock
+    private ConnectionFactory replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replica1Connection;
+
+    @Mock
+    private Connection replica2Connection;
+
+    private ReplicaRoutingConnectionFactory routingConnectionFactory;
+
+    @BeforeEach
+    public void setUp() {
+        BDDMockito.when(primary.create()).thenAnswer(invocation -> Mono.just(primaryConnection));
+        BDDMockito.when(replica1.create()).thenAnswer(invocation -> Mono.just(replica1Connection));
+        BDDMockito.when(replica2.create()).thenAnswer(invocation -> Mono.just(replica2Connection));
+        Map<String, ConnectionFactory> replicas = new LinkedHashMap<>();
+        replicas.put("replica1", replica1);
+        replicas.put("replica2", replica2);
+        DatabaseProperties.Replicas properties = new DatabaseProperties.Replicas();
+        properties.setHealthCheckInterval(Duration.ofHours(1));
+        routingConnectionFactory = new ReplicaRoutingConnectionFactory(primary, replicas, properties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        routingConnectionFactory.dispose();
+    }
+
+    @Test
+    @DisplayName("create alternates between the replicas for read-only queries")
+    public void create_AlternatesReplicas_WhenReadOnly() {
+        StepVerifier.create(readOnly())
+                .expectNext(replica1Connection)
+                .verifyComplete();
+        StepVerifier.create(readOnly())
+                .expectNext(replica2Connection)
+                .verifyComplete();
+        StepVerifier.create(readOnly())
+                .expectNext(replica1Connection)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("create returns a primary connection for writes and for reads pinned to the primary")
+    public void create_ReturnsPrimaryConnection_WhenNotReadOnlyOrPinned() {
+        StepVerifier.create(routingConnectionFactory.create())
+                .expectNext(primaryConnection)
+                .verifyComplete();
+        StepVerifier.create(readOnly().contextWrite(DatabaseRouting::pinToPrimary))
+                .expectNext(primaryConnection)
+                .verifyComplete();
+
+        BDDMockito.verify(replica1, BDDMockito.never()).create();
+        BDDMockito.verify(replica2, BDDMockito.never()).create();
+    }
+
+    @Test
+    @DisplayName("create falls back to the primary when a replica fails, and skips that replica afterwards")
+    public void create_EjectsReplica_WhenItFails() {
+        BDDMockito.when(replica1.create())
+                .thenAnswer(invocation -> Mono.error(new R2dbcNonTransientResourceException("Connection refused")));
+
+        StepVerifier.create(readOnly())
+                .expectNext(primaryConnection)
+                .verifyComplete();
+        StepVerifier.create(readOnly())
+                .expectNext(replica2Connection)
+                .verifyComplete();
+        StepVerifier.create(readOnly())
+                .expectNext(replica2Connection)
+                .verifyComplete();
+
+        BDDMockito.verify(replica1, BDDMockito.times(1)).create();
+    }
+
+    private Mono<Connection> readOnly() {
+        return routingConnectionFactory.create().contextWrite(DatabaseRouting::readOnly);
+    }
+}
@@ -21,9 +21,14 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChunkResult;
+import com.robsonkades.springwebflux.domain.AnimeLookup;
+import com.robsonkades.springwebflux.domain.AnimePage;
 import com.robsonkades.springwebflux.service.AnimeService;
 import com.robsonkades.springwebflux.util.AnimeCreator;
 
@@ -61,8 +66,8 @@ public class AnimeControllerTest {
     @BeforeEach
     public void each() {
         BDDMockito
-                .when(animeService.findAll())
-                .thenReturn(Flux.just(anime));
+                .when(animeService.findPage(ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(Mono.just(new AnimePage(List.of(anime), anime.getId())));
 
         BDDMockito
                 .when(animeService.findById(ArgumentMatchers.anyInt()))
@@ -73,12 +78,12 @@ public class AnimeControllerTest {
                 .thenReturn(Mono.just(anime));
 
         BDDMockito
-                .when(animeService.delete(ArgumentMatchers.anyInt()))
+                .when(animeService.delete(ArgumentMatchers.anyInt(), ArgumentMatchers.any()))
                 .thenReturn(Mono.empty());
 
         BDDMockito
-                .when(animeService.update(AnimeCreator.createValidAnime()))
-                .thenReturn(Mono.empty());
+                .when(animeService.update(AnimeCreator.createValidAnime(), null))
+                .thenReturn(Mono.just(AnimeCreator.updateAnime()));
 
         BDDMockito
                 .when(animeService.saveBatch(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
@@ -86,25 +91,108 @@ public class AnimeControllerTest {
     }
 
     @Test
-    @DisplayName("findAll returns a flux of anime")
-    public void findAll_ReturnFluxOfAnime_WhenSuccessful() {
-        StepVerifier.create(animeController.listAll())
+    @DisplayName("listAll returns a page of anime with the next cursor header")
+    public void listAll_ReturnPageOfAnime_WhenSuccessful() {
+        StepVerifier.create(animeController.listAll(null, 1))
                 .expectSubscription()
-                .expectNext(anime)
+                .assertNext(response -> {
+                    Assertions.assertEquals(List.of(anime), response.getBody());
+                    Assertions.assertEquals(String.valueOf(anime.getId()),
+                            response.getHeaders().getFirst(AnimeController.NEXT_CURSOR_HEADER));
+                    Assertions.assertTrue(response.getHeaders().getETag().startsWith("W/\""));
+                })
                 .expectComplete()
                 .verify();
     }
 
     @Test
-    @DisplayName("findById returns Mono with anime when it exists")
-    public void findById_ReturnMonoOfAnime_WhenSuccessful() {
-        StepVerifier.create(animeController.findById(1))
+    @DisplayName("stream returns a flux of anime")
+    public void stream_ReturnFluxOfAnime_WhenSuccessful() {
+        BDDMockito
+                .when(animeService.streamAll())
+                .thenReturn(Flux.just(anime));
+
+        StepVerifier.create(animeController.stream())
                 .expectSubscription()
                 .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("search returns a flux of the matching anime")
+    public void search_ReturnFluxOfAnime_WhenSuccessful() {
+        BDDMockito
+                .when(animeService.search("naru", 5))
+                .thenReturn(Flux.just(anime));
+
+        StepVerifier.create(animeController.search("naru", 5))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAllById returns the animes found and the missing ids")
+    public void findAllById_ReturnLookup_WhenSuccessful() {
+        AnimeLookup lookup = new AnimeLookup(List.of(anime), List.of(2));
+        BDDMockito
+                .when(animeService.findAllById(List.of(1, 2)))
+                .thenReturn(Mono.just(lookup));
+
+        StepVerifier.create(animeController.findAllById(List.of(1, 2)))
+                .expectSubscription()
+                .expectNext(lookup)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById returns Mono with anime and its version as ETag when it exists")
+    public void findById_ReturnMonoOfAnime_WhenSuccessful() {
+        StepVerifier.create(animeController.findById(1, new HttpHeaders()))
+                .expectSubscription()
+                .assertNext(response -> {
+                    Assertions.assertEquals(anime, response.getBody());
+                    Assertions.assertEquals("\"0\"", response.getHeaders().getETag());
+                })
                 .expectComplete()
                 .verify();
     }
 
+    @Test
+    @DisplayName("findById returns not modified without loading the anime when If-None-Match has its version")
+    public void findById_ReturnNotModified_WhenIfNoneMatchHasVersion() {
+        BDDMockito
+                .when(animeService.findVersion(1))
+                .thenReturn(Mono.just(0));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch("W/\"0\"");
+
+        StepVerifier.create(animeController.findById(1, headers))
+                .expectSubscription()
+                .assertNext(response -> {
+                    Assertions.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+                    Assertions.assertNull(response.getBody());
+                })
+                .verifyComplete();
+
+        BDDMockito.verify(animeService, BDDMockito.never()).findById(ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("findById returns the anime when If-None-Match has an older version")
+    public void findById_ReturnMonoOfAnime_WhenIfNoneMatchHasOlderVersion() {
+        BDDMockito
+                .when(animeService.findVersion(1))
+                .thenReturn(Mono.just(1));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"0\"");
+
+        StepVerifier.create(animeController.findById(1, headers))
+                .expectSubscription()
+                .assertNext(response -> Assertions.assertEquals(anime, response.getBody()))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("save creates an anime when successful")
     public void save_CreatesAnime_WhenSuccessful() {
@@ -126,19 +214,50 @@ public class AnimeControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    @DisplayName("ingest returns a report for each committed chunk")
+    public void ingest_ReturnChunkResults_WhenSuccessful() {
+        AnimeChunkResult result = AnimeChunkResult.committed(0, List.of(anime.getId()));
+        BDDMockito
+                .when(animeService.ingest(ArgumentMatchers.any()))
+                .thenReturn(Flux.just(result));
+
+        StepVerifier.create(animeController.ingest(Flux.just(AnimeCreator.createAnimeToBeSaved())))
+                .expectSubscription()
+                .expectNext(result)
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("delete removes the anime when successful")
     public void delete_RemovesAnime_WhenSuccessful() {
-        StepVerifier.create(animeController.delete(1))
+        StepVerifier.create(animeController.delete(1, new HttpHeaders()))
                 .expectSubscription()
                 .verifyComplete();
     }
 
     @Test
-    @DisplayName("update save updated anime and return empty mono when successful")
+    @DisplayName("delete passes the If-Match versions to the service")
+    public void delete_PassesExpectedVersions_WhenIfMatchIsPresent() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(List.of("\"3\"", "W/\"4\"", "\"5\""));
+
+        StepVerifier.create(animeController.delete(1, headers))
+                .expectSubscription()
+                .verifyComplete();
+
+        BDDMockito.verify(animeService).delete(1, List.of(3, 5));
+    }
+
+    @Test
+    @DisplayName("update save updated anime and return its new version as ETag when successful")
     public void update_SaveUpdatedAnime_WhenSuccessful() {
-        StepVerifier.create(animeController.update(1, AnimeCreator.createValidAnime()))
+        StepVerifier.create(animeController.update(1, AnimeCreator.createValidAnime(), new HttpHeaders()))
                 .expectSubscription()
+                .assertNext(response -> {
+                    Assertions.assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+                    Assertions.assertEquals("\"1\"", response.getHeaders().getETag());
+                })
                 .verifyComplete();
     }
 }
@@ -0,0 +1,97 @@
+package com.robsonkades.springwebflux.deadline;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+
+import com.robsonkades.springwebflux.config.DeadlineProperties;
+
+class DeadlineWebFilterTest {
+
+    private final AtomicReference<Deadline> deadline = new AtomicReference<>();
+
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        deadline.set(Deadline.from(context).orElse(null));
+        return Mono.empty();
+    });
+
+    private DeadlineWebFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        DeadlineProperties properties = new DeadlineProperties();
+        properties.setMaxTimeout(Duration.ofSeconds(10));
+        DeadlineProperties.Route reads = new DeadlineProperties.Route();
+        reads.setMethods(Set.of(HttpMethod.GET));
+        reads.setPaths(List.of("/animes/{id:[0-9]+}"));
+        reads.setTimeout(Duration.ofSeconds(2));
+        properties.getRoutes().put("reads", reads);
+        filter = new DeadlineWebFilter(properties);
+    }
+
+    @Test
+    @DisplayName("filter puts the timeout of the matching route into the context, and none for other requests")
+    public void filter_UsesRouteTimeout_WhenHeaderIsMissing() {
+        StepVerifier.create(filter.filter(exchange(MockServerHttpRequest.get("/animes/1")), chain))
+                .verifyComplete();
+        Assertions.assertThat(deadline.get().remaining()).isBetween(Duration.ofSeconds(1), Duration.ofSeconds(2));
+
+        StepVerifier.create(filter.filter(exchange(MockServerHttpRequest.get("/animes/stream")), chain))
+                .verifyComplete();
+        Assertions.assertThat(deadline.get()).isNull();
+    }
+
+    @Test
+    @DisplayName("filter takes the timeout from the header, capped at the maximum")
+    public void filter_UsesHeaderTimeout_WhenPresent() {
+        StepVerifier.create(filter.filter(exchange(MockServerHttpRequest.get("/animes/stream")
+                        .header("X-Request-Timeout", "60000")), chain))
+                .verifyComplete();
+
+        Assertions.assertThat(deadline.get().remaining()).isBetween(Duration.ofSeconds(9), Duration.ofSeconds(10));
+    }
+
+    @Test
+    @DisplayName("filter fails with 504 once the deadline passes and cancels the chain")
+    public void filter_ReturnsGatewayTimeout_WhenDeadlinePasses() {
+        AtomicReference<Boolean> cancelled = new AtomicReference<>(false);
+        WebFilterChain slowChain = exchange -> Mono.<Void>never().doOnCancel(() -> cancelled.set(true));
+
+        StepVerifier.create(filter.filter(exchange(MockServerHttpRequest.get("/animes/1")
+                        .header("X-Request-Timeout", "50")), slowChain))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.GATEWAY_TIMEOUT)
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(cancelled.get()).isTrue();
+    }
+
+    @Test
+    @DisplayName("filter rejects a timeout header that is not a positive number of milliseconds")
+    public void filter_ReturnsBadRequest_WhenHeaderIsInvalid() {
+        StepVerifier.create(filter.filter(exchange(MockServerHttpRequest.get("/animes/1")
+                        .header("X-Request-Timeout", "soon")), chain))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.BAD_REQUEST)
+                .verify();
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request.build());
+    }
+}
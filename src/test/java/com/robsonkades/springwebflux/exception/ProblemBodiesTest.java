@@ -0,0 +1,41 @@
+package com.robsonkades.springwebflux.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class ProblemBodiesTest {
+
+    private final ProblemBodies problemBodies = new ProblemBodies(new ObjectMapper());
+
+    @Test
+    @DisplayName("get returns the same precomputed problem body for every error of a status")
+    public void get_ReturnsPrecomputedBody_WhenThereIsNoDetail() {
+        byte[] body = problemBodies.get(HttpStatus.NOT_FOUND, null);
+
+        Assertions.assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo("{\"type\":\"about:blank\",\"title\":\"Not Found\",\"status\":404}");
+        Assertions.assertThat(problemBodies.get(HttpStatus.NOT_FOUND, null)).isSameAs(body);
+    }
+
+    @Test
+    @DisplayName("get serializes a detail once and reuses the body afterwards")
+    public void get_ReusesBody_WhenDetailRepeats() {
+        byte[] body = problemBodies.get(HttpStatus.BAD_REQUEST, "Invalid limit");
+
+        Assertions.assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo(
+                "{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,\"detail\":\"Invalid limit\"}");
+        Assertions.assertThat(problemBodies.get(HttpStatus.BAD_REQUEST, "Invalid limit")).isSameAs(body);
+    }
+
+    @Test
+    @DisplayName("StatusException carries no stack trace")
+    public void statusException_HasNoStackTrace() {
+        Assertions.assertThat(new StatusException(HttpStatus.NOT_FOUND).getStackTrace()).isEmpty();
+    }
+}
@@ -5,6 +5,7 @@ import reactor.blockhound.BlockingOperationError;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
 import java.util.List;
 import java.util.concurrent.FutureTask;
@@ -23,6 +24,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.context.support.WithUserDetails;
@@ -31,6 +34,7 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 
 import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChunkResult;
 import com.robsonkades.springwebflux.repository.AnimeRepository;
 import com.robsonkades.springwebflux.util.AnimeCreator;
 import com.robsonkades.springwebflux.util.WebTestClientUtil;
@@ -38,7 +42,7 @@ import com.robsonkades.springwebflux.util.WebTestClientUtil;
 @ExtendWith(SpringExtension.class)
 //@WebFluxTest
 //@Import({ AnimeService.class, CustomAttributes.class })
-@SpringBootTest
+@SpringBootTest(properties = {"anime.cache.ttl=0s", "anime.cache.negative-ttl=0s"})
 @AutoConfigureWebTestClient
 public class AnimeControllerIT {
 
@@ -87,7 +91,11 @@ public class AnimeControllerIT {
 //        this.webTestClientInvalid = webTestClientUtil.authenticateClient("xx", "xx");
 
         BDDMockito
-                .when(animeRepository.findAll())
+                .when(animeRepository.findPage(ArgumentMatchers.anyInt(), ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime));
+
+        BDDMockito
+                .when(animeRepository.streamAll(ArgumentMatchers.anyInt()))
                 .thenReturn(Flux.just(anime));
 
         BDDMockito
@@ -99,15 +107,19 @@ public class AnimeControllerIT {
                 .thenReturn(Mono.just(anime));
 
         BDDMockito
-                .when(animeRepository.delete(ArgumentMatchers.any(Anime.class)))
-                .thenReturn(Mono.empty());
+                .when(animeRepository.removeById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.just(1));
+
+        BDDMockito
+                .when(animeRepository.updateName(ArgumentMatchers.anyInt(), ArgumentMatchers.anyString()))
+                .thenReturn(Mono.just(anime));
 
         BDDMockito
                 .when(animeRepository.save(AnimeCreator.createValidAnime()))
                 .thenReturn(Mono.empty());
 
         BDDMockito
-                .when(animeRepository.saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
+                .when(animeRepository.insertAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
                 .thenReturn(Flux.just(anime, anime));
     }
 
@@ -125,6 +137,38 @@ public class AnimeControllerIT {
                 .jsonPath("$.[0].name").isEqualTo(anime.getName());
     }
 
+    @Test
+    @DisplayName("findAll returns the next cursor header when the page is full")
+    @WithUserDetails("admin")
+    public void findAll_ReturnNextCursor_WhenPageIsFull() {
+        client
+                .get()
+                .uri("/animes?after={after}&limit={limit}", 0, 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", String.valueOf(anime.getId()))
+                .expectBodyList(Anime.class)
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("stream returns anime as newline delimited json when user has role ADMIN")
+    @WithUserDetails("admin")
+    public void stream_ReturnNdjsonOfAnime_WhenSuccessful() {
+        client
+                .get()
+                .uri("/animes/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Anime.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("findAll returns forbidden when user is successfully authenticated and does not have role ADMIN")
     @WithUserDetails("user")
@@ -212,9 +256,10 @@ public class AnimeControllerIT {
                 .uri("/animes/{id}", 1)
                 .exchange()
                 .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
                 .expectBody()
                 .jsonPath("$.status").isEqualTo(404)
-                .jsonPath("$.detail").isEqualTo("This is an error");
+                .jsonPath("$.title").isEqualTo("Not Found");
     }
 
     @Test
@@ -258,7 +303,7 @@ public class AnimeControllerIT {
         Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
 
         BDDMockito
-                .when(animeRepository.saveAll(ArgumentMatchers.anyIterable()))
+                .when(animeRepository.insertAll(ArgumentMatchers.anyList()))
                 .thenReturn(Flux.just(anime, anime.withName("")));
 
         client
@@ -272,6 +317,27 @@ public class AnimeControllerIT {
                 .jsonPath("$.status").isEqualTo(400);
     }
 
+    @Test
+    @DisplayName("ingest streams a committed chunk report for newline delimited json bodies")
+    @WithUserDetails("admin")
+    public void ingest_ReturnChunkReport_WhenSuccessful() {
+        Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        client
+                .post()
+                .uri("/animes/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.just(animeToBeSaved, animeToBeSaved), Anime.class)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(AnimeChunkResult.class)
+                .getResponseBody()
+                .as(StepVerifier::create)
+                .expectNext(AnimeChunkResult.committed(0, List.of(anime.getId(), anime.getId())))
+                .verifyComplete();
+    }
+
     @Test
     @DisplayName("save returns mono error with bad request when name is empty")
     @WithUserDetails("admin")
@@ -304,8 +370,8 @@ public class AnimeControllerIT {
     @WithUserDetails("admin")
     public void delete_ReturnsMonoError_WhenEmptyMonoIsReturned() {
         BDDMockito
-                .when(animeRepository.findById(ArgumentMatchers.anyInt()))
-                .thenReturn(Mono.empty());
+                .when(animeRepository.removeById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.just(0));
 
         client
                 .delete()
@@ -335,7 +401,7 @@ public class AnimeControllerIT {
     @WithUserDetails("admin")
     public void update_ReturnMonoError_WhenEmptyMonoIsReturned() {
         BDDMockito
-                .when(animeRepository.findById(ArgumentMatchers.anyInt()))
+                .when(animeRepository.updateName(ArgumentMatchers.anyInt(), ArgumentMatchers.anyString()))
                 .thenReturn(Mono.empty());
 
         client
@@ -348,4 +414,43 @@ public class AnimeControllerIT {
                 .expectBody()
                 .jsonPath("$.status").isEqualTo(404);
     }
+
+    @Test
+    @DisplayName("findById returns not modified when If-None-Match has the current version")
+    @WithUserDetails("user")
+    public void findById_ReturnNotModified_WhenIfNoneMatchHasCurrentVersion() {
+        BDDMockito
+                .when(animeRepository.findVersionById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.just(anime.getVersion()));
+
+        client
+                .get()
+                .uri("/animes/{id}", 1)
+                .ifNoneMatch("\"" + anime.getVersion() + "\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + anime.getVersion() + "\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("update returns precondition failed when If-Match has an old version")
+    @WithUserDetails("admin")
+    public void update_ReturnPreconditionFailed_WhenIfMatchHasOldVersion() {
+        BDDMockito
+                .when(animeRepository.updateName(ArgumentMatchers.anyInt(), ArgumentMatchers.anyString(), ArgumentMatchers.anyCollection()))
+                .thenReturn(Mono.empty());
+        BDDMockito
+                .when(animeRepository.findVersionById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.just(anime.getVersion() + 1));
+
+        client
+                .put()
+                .uri("/animes/{id}", 1)
+                .header(HttpHeaders.IF_MATCH, "\"" + anime.getVersion() + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(AnimeCreator.createValidAnime()))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
 }
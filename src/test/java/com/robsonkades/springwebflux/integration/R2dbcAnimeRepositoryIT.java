@@ -0,0 +1,19 @@
+package com.robsonkades.springwebflux.integration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.robsonkades.springwebflux.repository.AnimeRepository;
+import com.robsonkades.springwebflux.repository.AnimeRepositoryContractTest;
+
+@SpringBootTest
+public class R2dbcAnimeRepositoryIT extends AnimeRepositoryContractTest {
+
+    @Autowired
+    private AnimeRepository animeRepository;
+
+    @Override
+    protected AnimeRepository animeRepository() {
+        return animeRepository;
+    }
+}
@@ -0,0 +1,122 @@
+package com.robsonkades.springwebflux.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import com.robsonkades.springwebflux.config.ConcurrencyLimitProperties;
+import com.robsonkades.springwebflux.deadline.Deadline;
+
+class ConcurrencyLimitWebFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Sinks.Empty<Void> response = Sinks.empty();
+
+    private final WebFilterChain chain = exchange -> response.asMono();
+
+    private ConcurrencyLimitWebFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        ConcurrencyLimitProperties.Partition writes = new ConcurrencyLimitProperties.Partition();
+        writes.setMethods(Set.of(HttpMethod.POST));
+        writes.setPaths(List.of("/animes/**"));
+        writes.setInitialLimit(1);
+        writes.setMinLimit(1);
+        writes.setRejectionStatus(HttpStatus.TOO_MANY_REQUESTS);
+        properties.getPartitions().put("writes", writes);
+        ConcurrencyLimitProperties.Partition reads = new ConcurrencyLimitProperties.Partition();
+        reads.setMethods(Set.of(HttpMethod.GET));
+        reads.setPaths(List.of("/animes"));
+        reads.setInitialLimit(10);
+        reads.setMinLimit(1);
+        properties.getPartitions().put("reads", reads);
+        filter = new ConcurrencyLimitWebFilter(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("filter rejects requests beyond the limit of their partition with its status and Retry-After")
+    public void filter_RejectsRequest_WhenPartitionIsFull() {
+        StepVerifier.create(filter.filter(exchange(HttpMethod.POST, "/animes"), chain))
+                .expectSubscription()
+                .then(() -> {
+                    MockServerWebExchange rejected = exchange(HttpMethod.POST, "/animes/batch");
+                    filter.filter(rejected, chain).block();
+                    Assertions.assertThat(rejected.getResponse().getStatusCode())
+                            .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    Assertions.assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER))
+                            .isEqualTo("1");
+                    Assertions.assertThat(gauge("concurrency.inflight")).isEqualTo(1);
+                })
+                .then(response::tryEmitEmpty)
+                .verifyComplete();
+
+        Assertions.assertThat(gauge("concurrency.inflight")).isZero();
+        Assertions.assertThat(rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("filter shrinks the limit when the deadline cancels a request, but not when its client does")
+    public void filter_ShrinksLimit_WhenDeadlineCancelsRequest() {
+        filter.filter(exchange(HttpMethod.GET, "/animes"), chain).subscribe().dispose();
+        Assertions.assertThat(gauge("concurrency.limit", "reads")).isEqualTo(10);
+
+        Deadline deadline = Deadline.after(Duration.ofMillis(10));
+        StepVerifier.create(filter.filter(exchange(HttpMethod.GET, "/animes"), chain)
+                        .timeout(Duration.ofMillis(10))
+                        .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline)))
+                .expectSubscription()
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(gauge("concurrency.limit", "reads")).isEqualTo(9);
+        Assertions.assertThat(gauge("concurrency.inflight", "reads")).isZero();
+    }
+
+    @Test
+    @DisplayName("filter does not limit requests outside every partition")
+    public void filter_PassesRequest_WhenNoPartitionMatches() {
+        response.tryEmitEmpty();
+
+        StepVerifier.create(filter.filter(exchange(HttpMethod.POST, "/animes"), chain)
+                        .then(filter.filter(exchange(HttpMethod.DELETE, "/animes"), chain)))
+                .verifyComplete();
+
+        Assertions.assertThat(rejected()).isZero();
+    }
+
+    private static MockServerWebExchange exchange(HttpMethod method, String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.method(method, path).build());
+    }
+
+    private double rejected() {
+        return meterRegistry.get("concurrency.rejected").tag("partition", "writes").counter().count();
+    }
+
+    private double gauge(String name) {
+        return gauge(name, "writes");
+    }
+
+    private double gauge(String name, String partition) {
+        return meterRegistry.get(name).tag("partition", partition).gauge().value();
+    }
+}
@@ -0,0 +1,86 @@
+package com.robsonkades.springwebflux.limit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class GradientLimitTest {
+
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    @DisplayName("tryAcquire rejects once every slot is in use, and release frees one")
+    public void tryAcquire_ReturnsFalse_WhenLimitIsReached() {
+        GradientLimit limit = new GradientLimit(2, 1, 10, 1.5);
+
+        Assertions.assertThat(limit.tryAcquire()).isTrue();
+        Assertions.assertThat(limit.tryAcquire()).isTrue();
+        Assertions.assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release();
+
+        Assertions.assertThat(limit.tryAcquire()).isTrue();
+        Assertions.assertThat(limit.getInflight()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("onSample grows the limit while latency is steady and the partition is busy, up to the maximum")
+    public void onSample_GrowsLimit_WhenLatencyIsSteady() {
+        GradientLimit limit = new GradientLimit(20, 4, 50, 1.5);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(RTT, limit.getLimit());
+        }
+        Assertions.assertThat(limit.getLimit()).isBetween(25, 50);
+
+        for (int i = 0; i < 1_000; i++) {
+            limit.onSample(RTT, limit.getLimit());
+        }
+        Assertions.assertThat(limit.getLimit()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("onSample keeps the limit when less than half of it is in use")
+    public void onSample_KeepsLimit_WhenPartitionIsIdle() {
+        GradientLimit limit = new GradientLimit(20, 4, 50, 1.5);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT, 5);
+        }
+
+        Assertions.assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("onSample shrinks the limit when latency rises above the tolerance, down to the minimum")
+    public void onSample_ShrinksLimit_WhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(20, 8, 50, 1.5);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(RTT, 0);
+        }
+
+        limit.onSample(RTT * 5, 20);
+        Assertions.assertThat(limit.getLimit()).isLessThan(20);
+
+        for (int i = 0; i < 40; i++) {
+            limit.onSample(RTT * 5, 20);
+        }
+        Assertions.assertThat(limit.getLimit()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("onDropped shrinks the limit by a tenth, down to the minimum")
+    public void onDropped_ShrinksLimit_WhenRequestRanOutOfTime() {
+        GradientLimit limit = new GradientLimit(20, 4, 50, 1.5);
+
+        limit.onDropped();
+        Assertions.assertThat(limit.getLimit()).isEqualTo(18);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onDropped();
+        }
+        Assertions.assertThat(limit.getLimit()).isEqualTo(4);
+    }
+}
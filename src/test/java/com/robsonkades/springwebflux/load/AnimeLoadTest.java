@@ -0,0 +1,116 @@
+package com.robsonkades.springwebflux.load;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunctions;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.robsonkades.springwebflux.domain.Anime;
+
+/**
+ * Starts the application on a random port with {@link LoadTestConfiguration} in place of Postgres and drives it
+ * over HTTP. Disabled unless {@code -Dload=true}, e.g.
+ * <pre>
+ * mvn test -Dtest=AnimeLoadTest -Dload=true -Dload.rate=2000 -Dload.duration=60s -Dload.repository.latency=10ms
+ * </pre>
+ * Any application property (pool, cache, scheduler sizes) can be overridden the same way. The report is logged and
+ * the latency histograms are written to {@code target/load}.
+ */
+@Slf4j
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"database.warmup.enabled=false", "spring.sql.init.mode=never"})
+@Import(LoadTestConfiguration.class)
+@EnabledIfSystemProperty(named = "load", matches = "true")
+public class AnimeLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${load.rate:200}")
+    private double rate;
+
+    @Value("${load.warmup:5s}")
+    private Duration warmup;
+
+    @Value("${load.duration:30s}")
+    private Duration duration;
+
+    @Value("${load.max-in-flight:1024}")
+    private int maxInFlight;
+
+    @Value("${load.repository.size:10000}")
+    private int size;
+
+    @Value("${load.report-dir:target/load}")
+    private String reportDir;
+
+    @Test
+    @DisplayName("anime endpoints sustain the configured arrival rate")
+    public void animeEndpoints_UnderFixedArrivalRate() {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("load")
+                .maxConnections(maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            LoadGenerator loadGenerator = new LoadGenerator(webClient(connectionProvider), endpoints());
+            log.info("Warming up for {} at {} req/s", warmup, rate);
+            loadGenerator.run(rate, warmup, maxInFlight);
+
+            log.info("Measuring for {} at {} req/s", duration, rate);
+            LoadReport report = loadGenerator.run(rate, duration, maxInFlight);
+            log.info("Load report:\n{}", report);
+            report.writeHistograms(Paths.get(reportDir));
+
+            Assertions.assertThat(report.completed()).isPositive();
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    private WebClient webClient(ConnectionProvider connectionProvider) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .responseTimeout(Duration.ofSeconds(30));
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(ExchangeFilterFunctions.basicAuthentication(LoadTestConfiguration.USERNAME,
+                        LoadTestConfiguration.PASSWORD))
+                .build();
+    }
+
+    private List<LoadGenerator.Endpoint> endpoints() {
+        return Arrays.asList(
+                new LoadGenerator.Endpoint("GET /animes/{id}", 70,
+                        client -> client.get().uri("/animes/{id}", randomId())),
+                new LoadGenerator.Endpoint("GET /animes", 20,
+                        client -> client.get().uri("/animes?after={after}&limit=20", randomId())),
+                new LoadGenerator.Endpoint("POST /animes", 10,
+                        client -> client.post().uri("/animes")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .bodyValue(Anime.builder().name("Load test").build())));
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, size + 1);
+    }
+}
@@ -0,0 +1,79 @@
+package com.robsonkades.springwebflux.load;
+
+import lombok.Value;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Open-model load generator: requests are started at a fixed arrival rate whether or not earlier ones have
+ * completed, and each one goes to an endpoint picked at random according to its weight. Requests that cannot be
+ * started because {@code maxInFlight} are already outstanding are counted as not sent.
+ */
+public class LoadGenerator {
+
+    private final WebClient webClient;
+
+    private final List<Endpoint> endpoints;
+
+    private final int totalWeight;
+
+    public LoadGenerator(WebClient webClient, List<Endpoint> endpoints) {
+        this.webClient = webClient;
+        this.endpoints = endpoints;
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::getWeight).sum();
+    }
+
+    public LoadReport run(double requestsPerSecond, Duration duration, int maxInFlight) {
+        LoadReport report = new LoadReport(endpoints.stream().map(Endpoint::getName).collect(Collectors.toList()));
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        long start = System.nanoTime();
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(duration.toNanos() / periodNanos)
+                .onBackpressureDrop(tick -> report.dropped())
+                .flatMap(tick -> send(nextEndpoint(), start + (tick + 1) * periodNanos, report), maxInFlight)
+                .blockLast();
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    private Mono<Void> send(Endpoint endpoint, long scheduledAt, LoadReport report) {
+        LoadReport.EndpointStats stats = report.stats(endpoint.getName());
+        return endpoint.getRequest().apply(webClient)
+                .exchangeToMono(ClientResponse::toBodilessEntity)
+                .doOnNext(response -> stats.response(System.nanoTime() - scheduledAt, response.getStatusCodeValue()))
+                .doOnError(stats::failure)
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    private Endpoint nextEndpoint() {
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            pick -= endpoint.getWeight();
+            if (pick < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("No endpoint for weight " + pick);
+    }
+
+    @Value
+    public static class Endpoint {
+
+        String name;
+
+        int weight;
+
+        Function<WebClient, WebClient.RequestHeadersSpec<?>> request;
+    }
+}
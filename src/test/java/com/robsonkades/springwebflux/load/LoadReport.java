@@ -0,0 +1,121 @@
+package com.robsonkades.springwebflux.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint outcome of a {@link LoadGenerator} run. Latencies are measured from the moment a request was
+ * scheduled to be sent, not from when it was actually sent, so a stalled server shows up in the tail instead of
+ * silently lowering the arrival rate.
+ */
+public class LoadReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private long elapsedNanos;
+
+    LoadReport(Iterable<String> endpointNames) {
+        endpointNames.forEach(name -> endpoints.put(name, new EndpointStats()));
+    }
+
+    EndpointStats stats(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long completed() {
+        return endpoints.values().stream().mapToLong(stats -> stats.latency.getTotalCount()).sum();
+    }
+
+    public long errors() {
+        return endpoints.values().stream().mapToLong(EndpointStats::errorCount).sum();
+    }
+
+    /**
+     * Writes one HdrHistogram percentile distribution ({@code .hgrm}, in milliseconds) per endpoint, ready to be
+     * plotted or diffed between runs.
+     */
+    public void writeHistograms(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+                Path file = directory.resolve(entry.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                    entry.getValue().latency.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder(String.format("%-20s %9s %9s %8s %8s %8s %8s %8s  %s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+        endpoints.forEach((name, stats) -> {
+            Histogram latency = stats.latency;
+            report.append(String.format("%-20s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f  %s%n",
+                    name, latency.getTotalCount(), latency.getTotalCount() / seconds,
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                    millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()), stats.errors));
+        });
+        report.append(String.format("total %d requests in %.1fs (%.1f req/s), %d errors, %d not sent (client saturated)",
+                completed(), seconds, completed() / seconds, errors(), dropped.sum()));
+        return report.toString();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    static class EndpointStats {
+
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        void response(long latencyNanos, int status) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+            if (status >= 400) {
+                error("HTTP " + status);
+            }
+        }
+
+        void failure(Throwable error) {
+            error(error.getClass().getSimpleName());
+        }
+
+        private void error(String reason) {
+            errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+        }
+
+        private long errorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+    }
+}
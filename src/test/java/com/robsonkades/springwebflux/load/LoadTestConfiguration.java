@@ -0,0 +1,64 @@
+package com.robsonkades.springwebflux.load;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import com.robsonkades.springwebflux.domain.User;
+import com.robsonkades.springwebflux.repository.AnimeRepository;
+import com.robsonkades.springwebflux.repository.UserRepository;
+import com.robsonkades.springwebflux.util.StubAnimeRepository;
+
+/**
+ * Replaces the R2DBC repositories with in-memory stand-ins that answer after a synthetic delay. Tune them with
+ * {@code -Dload.repository.latency}, {@code -Dload.repository.jitter}, {@code -Dload.repository.failure-rate}
+ * and {@code -Dload.repository.size}.
+ */
+@TestConfiguration
+public class LoadTestConfiguration {
+
+    static final String USERNAME = "admin";
+
+    static final String PASSWORD = "devdojo";
+
+    @Bean
+    public SyntheticLatency syntheticLatency(@Value("${load.repository.latency:5ms}") Duration latency,
+                                             @Value("${load.repository.jitter:2ms}") Duration jitter,
+                                             @Value("${load.repository.failure-rate:0}") double failureRate) {
+        return new SyntheticLatency(latency, jitter, failureRate);
+    }
+
+    @Bean
+    @Primary
+    public AnimeRepository syntheticAnimeRepository(SyntheticLatency syntheticLatency,
+                                                    @Value("${load.repository.size:10000}") int size) {
+        return SyntheticLatencyRepositories.wrap(AnimeRepository.class, new StubAnimeRepository(size), syntheticLatency);
+    }
+
+    @Bean
+    @Primary
+    public UserRepository syntheticUserRepository(SyntheticLatency syntheticLatency) {
+        User admin = new User(1, "Admin", USERNAME,
+                PasswordEncoderFactories.createDelegatingPasswordEncoder().encode(PASSWORD), "ROLE_ADMIN,ROLE_USER");
+        return SyntheticLatencyRepositories.wrap(UserRepository.class, new Users(admin), syntheticLatency);
+    }
+
+    public static class Users {
+
+        private final User user;
+
+        Users(User user) {
+            this.user = user;
+        }
+
+        public Mono<User> findByUsername(String username) {
+            return user.getUsername().equals(username) ? Mono.just(user) : Mono.empty();
+        }
+    }
+}
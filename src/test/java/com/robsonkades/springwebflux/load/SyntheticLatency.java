@@ -0,0 +1,48 @@
+package com.robsonkades.springwebflux.load;
+
+import lombok.Value;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Delays each repository call by {@code latency ± jitter} (uniformly distributed) and fails it with the given
+ * probability, the way a saturated or flaky database would.
+ */
+@Value
+public class SyntheticLatency {
+
+    Duration latency;
+
+    Duration jitter;
+
+    double failureRate;
+
+    public <T> Mono<T> apply(Mono<T> mono) {
+        return Mono.defer(() -> failNow() ? Mono.<T>error(failure()) : mono)
+                .delaySubscription(nextDelay());
+    }
+
+    public <T> Flux<T> apply(Flux<T> flux) {
+        return Flux.defer(() -> failNow() ? Flux.<T>error(failure()) : flux)
+                .delaySubscription(nextDelay());
+    }
+
+    private Duration nextDelay() {
+        long jitterNanos = jitter.toNanos();
+        long offset = jitterNanos == 0 ? 0 : ThreadLocalRandom.current().nextLong(-jitterNanos, jitterNanos + 1);
+        return Duration.ofNanos(Math.max(0, latency.toNanos() + offset));
+    }
+
+    private boolean failNow() {
+        return failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+    }
+
+    private static TransientDataAccessResourceException failure() {
+        return new TransientDataAccessResourceException("Synthetic repository failure");
+    }
+}
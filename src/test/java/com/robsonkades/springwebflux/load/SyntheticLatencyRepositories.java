@@ -0,0 +1,51 @@
+package com.robsonkades.springwebflux.load;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Builds repository stand-ins that forward every call to a plain target object and pass the returned publisher
+ * through {@link SyntheticLatency}. The target only has to declare the methods the load actually reaches, with
+ * the same signature as the repository interface; any other call fails with {@link UnsupportedOperationException}.
+ */
+public final class SyntheticLatencyRepositories {
+
+    private SyntheticLatencyRepositories() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <R> R wrap(Class<R> repositoryType, Object target, SyntheticLatency latency) {
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.invoke(target, args);
+                    }
+                    Object result = invoke(target, method, args);
+                    if (result instanceof Mono) {
+                        return latency.apply((Mono<?>) result);
+                    }
+                    if (result instanceof Flux) {
+                        return latency.apply((Flux<?>) result);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        Method targetMethod;
+        try {
+            targetMethod = target.getClass().getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            throw new UnsupportedOperationException(method.toGenericString());
+        }
+        try {
+            return targetMethod.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.robsonkades.springwebflux.logging;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.robsonkades.springwebflux.config.LogSamplingProperties;
+
+class LogSamplerTest {
+
+    private LogSampler logSampler;
+
+    @BeforeEach
+    public void setUp() {
+        LogSamplingProperties properties = new LogSamplingProperties();
+        properties.getAccess().setRate(0);
+        properties.getAccess().getRates().put("GET /animes", 1.0);
+        logSampler = new LogSampler(properties);
+    }
+
+    @Test
+    @DisplayName("isSampled uses the rate of the key when there is one, the channel rate otherwise")
+    public void isSampled_UsesKeyRate_WhenKeyHasRate() {
+        Assertions.assertThat(sampled(LogSampler.ACCESS, "GET /animes")).isEqualTo(100);
+        Assertions.assertThat(sampled(LogSampler.ACCESS, "GET /animes/{id}")).isZero();
+    }
+
+    @Test
+    @DisplayName("setRate and resetRate change sampling at runtime")
+    public void setRate_ChangesSampling_AtRuntime() {
+        logSampler.setRate(LogSampler.ACCESS, null, 1);
+        logSampler.setRate(LogSampler.ACCESS, "GET /animes", 0);
+
+        Assertions.assertThat(sampled(LogSampler.ACCESS, "GET /animes/{id}")).isEqualTo(100);
+        Assertions.assertThat(sampled(LogSampler.ACCESS, "GET /animes")).isZero();
+
+        logSampler.resetRate(LogSampler.ACCESS, "GET /animes");
+
+        Assertions.assertThat(sampled(LogSampler.ACCESS, "GET /animes")).isEqualTo(100);
+        Assertions.assertThat(logSampler.rates()).containsKeys(LogSampler.ACCESS, LogSampler.QUERY);
+        Assertions.assertThat(logSampler.rates()).extracting(LogSampler.ACCESS).isEqualTo(Map.of("rate", 1.0, "rates", Map.of()));
+    }
+
+    @Test
+    @DisplayName("setRate rejects unknown channels and rates outside 0..1")
+    public void setRate_ThrowsIllegalArgumentException_WhenChannelOrRateIsInvalid() {
+        Assertions.assertThatIllegalArgumentException().isThrownBy(() -> logSampler.setRate("audit", null, 1));
+        Assertions.assertThatIllegalArgumentException().isThrownBy(() -> logSampler.setRate(LogSampler.ACCESS, null, 2));
+    }
+
+    private long sampled(String channel, String key) {
+        return IntStream.range(0, 100).filter(i -> logSampler.isSampled(channel, key)).count();
+    }
+}
@@ -0,0 +1,51 @@
+package com.robsonkades.springwebflux.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ReactiveMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReactiveMetrics reactiveMetrics = new ReactiveMetrics(meterRegistry);
+
+    @Test
+    @DisplayName("timed records the outcome of a mono and releases the in-flight gauge")
+    public void timed_RecordsOutcome_WhenMonoTerminates() {
+        StepVerifier.create(reactiveMetrics.timed("test", "find", Mono.empty()))
+                .expectSubscription()
+                .verifyComplete();
+
+        StepVerifier.create(reactiveMetrics.timed("test", "find", Mono.error(new IllegalStateException())))
+                .expectSubscription()
+                .verifyError(IllegalStateException.class);
+
+        Assertions.assertThat(meterRegistry.get("test").tags("method", "find", "outcome", "empty").timer().count())
+                .isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("test")
+                        .tags("method", "find", "outcome", "error", "exception", "IllegalStateException").timer().count())
+                .isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("test.inflight").tags("method", "find").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("timed records the number of elements emitted by a flux")
+    public void timed_RecordsElements_WhenFluxCompletes() {
+        StepVerifier.create(reactiveMetrics.timed("test", "list", Flux.range(0, 3)))
+                .expectSubscription()
+                .expectNextCount(3)
+                .verifyComplete();
+
+        Assertions.assertThat(meterRegistry.get("test").tags("method", "list", "outcome", "success").timer().count())
+                .isEqualTo(1);
+        Assertions.assertThat(meterRegistry.get("test.elements").tags("method", "list").summary().totalAmount())
+                .isEqualTo(3);
+    }
+}
@@ -0,0 +1,234 @@
+package com.robsonkades.springwebflux.repository;
+
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.robsonkades.springwebflux.domain.Anime;
+
+/**
+ * Behaviour every {@link AnimeRepository} implementation has to share. The tests only look at rows they created
+ * themselves, so they can also run against a database that already holds data.
+ */
+public abstract class AnimeRepositoryContractTest {
+
+    protected abstract AnimeRepository animeRepository();
+
+    @Test
+    @DisplayName("save assigns an id and the first version to a new anime")
+    public void save_AssignsId_WhenAnimeIsNew() {
+        Anime saved = save("Naruto");
+
+        Assertions.assertThat(saved.getId()).isNotNull();
+        Assertions.assertThat(saved.getVersion()).isZero();
+        StepVerifier.create(animeRepository().findById(saved.getId()))
+                .expectSubscription()
+                .expectNext(new Anime(saved.getId(), "Naruto", 0))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("save updates an existing anime and increments its version")
+    public void save_UpdatesAnime_WhenAnimeExists() {
+        Anime saved = save("Naruto");
+
+        StepVerifier.create(animeRepository().save(saved.withName("Naruto Shippuden"))
+                        .then(animeRepository().findById(saved.getId())))
+                .expectSubscription()
+                .expectNext(new Anime(saved.getId(), "Naruto Shippuden", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("save fails when the anime to update does not exist")
+    public void save_ReturnsError_WhenAnimeToUpdateDoesNotExist() {
+        StepVerifier.create(animeRepository().save(new Anime(Integer.MAX_VALUE, "Missing", 0)))
+                .expectSubscription()
+                .verifyError(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("save fails when the anime was updated since it was read")
+    public void save_ReturnsError_WhenVersionIsStale() {
+        Anime saved = save("Naruto");
+        animeRepository().save(saved.withName("Naruto Shippuden")).block();
+
+        StepVerifier.create(animeRepository().save(saved.withName("Boruto").withVersion(0)))
+                .expectSubscription()
+                .verifyError(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    @DisplayName("findVersionById returns the current version, or empty when the anime does not exist")
+    public void findVersionById_ReturnsVersion_WhenAnimeExists() {
+        Anime saved = save("Naruto");
+        animeRepository().updateName(saved.getId(), "Naruto 2").block();
+
+        StepVerifier.create(animeRepository().findVersionById(saved.getId())
+                        .concatWith(animeRepository().findVersionById(Integer.MAX_VALUE)))
+                .expectSubscription()
+                .expectNext(1)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findById returns empty when the anime does not exist")
+    public void findById_ReturnsEmpty_WhenAnimeDoesNotExist() {
+        StepVerifier.create(animeRepository().findById(Integer.MAX_VALUE))
+                .expectSubscription()
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAll returns every anime ordered by id")
+    public void findAll_ReturnsAnimesOrderedById() {
+        List<Anime> saved = Arrays.asList(save("Bleach"), save("Naruto"), save("One Piece"));
+
+        List<Anime> animes = animeRepository().findAll().collectList().block();
+
+        Assertions.assertThat(animes).containsAll(saved);
+        Assertions.assertThat(animes.stream().map(Anime::getId).collect(Collectors.toList())).isSorted();
+    }
+
+    @Test
+    @DisplayName("findAllByIdIn returns the animes with one of the ids, each once")
+    public void findAllByIdIn_ReturnsExistingAnimes() {
+        Anime first = save("Bleach");
+        Anime second = save("Naruto");
+
+        List<Anime> animes = animeRepository()
+                .findAllByIdIn(new Integer[]{second.getId(), Integer.MAX_VALUE, first.getId(), second.getId()})
+                .collectList()
+                .block();
+
+        Assertions.assertThat(animes).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    @DisplayName("findPage returns the animes after the cursor, up to the limit")
+    public void findPage_ReturnsAnimesAfterCursor() {
+        Anime first = save("Bleach");
+        Anime second = save("Naruto");
+        Anime third = save("One Piece");
+
+        StepVerifier.create(animeRepository().findPage(first.getId(), 2))
+                .expectSubscription()
+                .expectNext(second, third)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("insertAll returns the inserted animes with ids, in input order")
+    public void insertAll_ReturnsAnimesWithIds() {
+        List<Anime> inserted = animeRepository()
+                .insertAll(Arrays.asList(Anime.builder().name("Bleach").build(), Anime.builder().name("Naruto").build()))
+                .collectList()
+                .block();
+
+        Assertions.assertThat(inserted).extracting(Anime::getName).containsExactly("Bleach", "Naruto");
+        Assertions.assertThat(inserted).extracting(Anime::getId).doesNotContainNull().isSorted();
+    }
+
+    @Test
+    @DisplayName("updateName returns the updated anime when it exists")
+    public void updateName_ReturnsUpdatedAnime_WhenAnimeExists() {
+        Anime saved = save("Naruto");
+
+        StepVerifier.create(animeRepository().updateName(saved.getId(), "Naruto 2"))
+                .expectSubscription()
+                .expectNext(new Anime(saved.getId(), "Naruto 2", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("updateName with versions only updates an anime whose version is one of them")
+    public void updateName_UpdatesAnime_OnlyWhenVersionMatches() {
+        Anime saved = save("Naruto");
+
+        StepVerifier.create(animeRepository().updateName(saved.getId(), "Naruto 2", Collections.singletonList(1)))
+                .expectSubscription()
+                .verifyComplete();
+
+        StepVerifier.create(animeRepository().updateName(saved.getId(), "Naruto 2", Arrays.asList(0, 1)))
+                .expectSubscription()
+                .expectNext(new Anime(saved.getId(), "Naruto 2", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("updateName returns empty when the anime does not exist")
+    public void updateName_ReturnsEmpty_WhenAnimeDoesNotExist() {
+        StepVerifier.create(animeRepository().updateName(Integer.MAX_VALUE, "Naruto 2"))
+                .expectSubscription()
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("removeById returns the number of removed animes")
+    public void removeById_ReturnsRemovedCount() {
+        Anime saved = save("Naruto");
+
+        StepVerifier.create(animeRepository().removeById(saved.getId())
+                        .concatWith(animeRepository().removeById(saved.getId())))
+                .expectSubscription()
+                .expectNext(1, 0)
+                .verifyComplete();
+
+        StepVerifier.create(animeRepository().findById(saved.getId()))
+                .expectSubscription()
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("removeById with versions only removes an anime whose version is one of them")
+    public void removeById_RemovesAnime_OnlyWhenVersionMatches() {
+        Anime saved = save("Naruto");
+
+        StepVerifier.create(animeRepository().removeById(saved.getId(), Collections.singletonList(1))
+                        .concatWith(animeRepository().removeById(saved.getId(), Collections.singletonList(0))))
+                .expectSubscription()
+                .expectNext(0, 1)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("searchByName returns the animes whose name contains the query, names starting with it first")
+    public void searchByName_ReturnsMatchingAnimes_PrefixFirst() {
+        String token = "zq" + UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        Anime containing = save("The " + token + " Saga");
+        Anime starting = save(token.toUpperCase() + " Origins");
+        save("Unrelated");
+
+        StepVerifier.create(animeRepository().searchByName(token, 10))
+                .expectSubscription()
+                .expectNext(starting, containing)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("searchByName keeps names starting with the query when the limit cuts the matches")
+    public void searchByName_ReturnsPrefixMatchesFirst_WhenLimitIsReached() {
+        String token = "zq" + UUID.randomUUID().toString().replace("-", "").substring(0, 10);
+        Anime firstContaining = save("The " + token + " Saga");
+        save("The " + token + " Saga");
+        Anime starting = save(token + " Origins");
+
+        StepVerifier.create(animeRepository().searchByName(token, 2))
+                .expectSubscription()
+                .expectNext(starting, firstContaining)
+                .verifyComplete();
+    }
+
+    private Anime save(String name) {
+        return animeRepository().save(Anime.builder().name(name).build()).block();
+    }
+}
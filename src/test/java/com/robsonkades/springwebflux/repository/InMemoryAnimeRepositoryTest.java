@@ -0,0 +1,17 @@
+package com.robsonkades.springwebflux.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.robsonkades.springwebflux.changes.AnimeChangeFeed;
+import com.robsonkades.springwebflux.config.AnimeProperties;
+
+public class InMemoryAnimeRepositoryTest extends AnimeRepositoryContractTest {
+
+    private final InMemoryAnimeRepository animeRepository = new InMemoryAnimeRepository(
+            new AnimeChangeFeed(new AnimeProperties(), new SimpleMeterRegistry()));
+
+    @Override
+    protected AnimeRepository animeRepository() {
+        return animeRepository;
+    }
+}
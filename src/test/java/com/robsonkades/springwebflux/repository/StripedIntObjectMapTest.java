@@ -0,0 +1,81 @@
+package com.robsonkades.springwebflux.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StripedIntObjectMapTest {
+
+    @Test
+    @DisplayName("behaves like a HashMap under random puts, updates and removals")
+    public void operations_MatchHashMap() {
+        StripedIntObjectMap<String> map = new StripedIntObjectMap<>(4);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = 1 + random.nextInt(5_000);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    Assertions.assertThat(map.put(key, "v" + i)).isEqualTo(expected.put(key, "v" + i));
+                    break;
+                case 2:
+                    Assertions.assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+                    break;
+                default:
+                    Assertions.assertThat(map.computeIfPresent(key, value -> value + "'"))
+                            .isEqualTo(expected.computeIfPresent(key, (k, value) -> value + "'"));
+                    break;
+            }
+        }
+
+        Assertions.assertThat(map.size()).isEqualTo(expected.size());
+        for (int key = 1; key <= 5_000; key++) {
+            Assertions.assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("keeps every entry written by concurrent writers")
+    public void put_KeepsEntries_WhenWrittenConcurrently() throws InterruptedException {
+        StripedIntObjectMap<Integer> map = new StripedIntObjectMap<>(8);
+        int writers = 4;
+        int keysPerWriter = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch done = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            int offset = w * keysPerWriter;
+            executor.execute(() -> {
+                for (int key = offset + 1; key <= offset + keysPerWriter; key++) {
+                    map.put(key, key);
+                    map.get(key - 1);
+                }
+                done.countDown();
+            });
+        }
+        Assertions.assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+
+        Assertions.assertThat(map.size()).isEqualTo(writers * keysPerWriter);
+        for (int key = 1; key <= writers * keysPerWriter; key++) {
+            Assertions.assertThat(map.get(key)).isEqualTo(key);
+        }
+    }
+
+    @Test
+    @DisplayName("put rejects keys that are not positive")
+    public void put_ThrowsIllegalArgumentException_WhenKeyIsNotPositive() {
+        StripedIntObjectMap<String> map = new StripedIntObjectMap<>(1);
+
+        Assertions.assertThatIllegalArgumentException().isThrownBy(() -> map.put(0, "zero"));
+    }
+}
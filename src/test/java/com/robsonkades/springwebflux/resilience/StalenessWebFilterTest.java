@@ -0,0 +1,45 @@
+package com.robsonkades.springwebflux.resilience;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+class StalenessWebFilterTest {
+
+    private final StalenessWebFilter filter = new StalenessWebFilter();
+
+    @Test
+    @DisplayName("filter adds Warning and Age when the response was answered from a snapshot")
+    public void filter_AddsStaleHeaders_WhenResponseIsStale() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/animes/1"));
+        WebFilterChain chain = ex -> Mono.deferContextual(context -> {
+            Staleness.mark(context, Instant.now().minusSeconds(30));
+            return ex.getResponse().setComplete();
+        });
+
+        filter.filter(exchange, chain).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        Assertions.assertThat(headers.getFirst(HttpHeaders.WARNING)).isEqualTo(StalenessWebFilter.STALE_WARNING);
+        Assertions.assertThat(Long.parseLong(headers.getFirst(HttpHeaders.AGE))).isBetween(30L, 40L);
+    }
+
+    @Test
+    @DisplayName("filter leaves fresh responses untouched")
+    public void filter_AddsNoHeaders_WhenResponseIsFresh() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/animes/1"));
+
+        filter.filter(exchange, ex -> ex.getResponse().setComplete()).block();
+
+        Assertions.assertThat(exchange.getResponse().getHeaders()).doesNotContainKeys(HttpHeaders.WARNING,
+                HttpHeaders.AGE);
+    }
+}
@@ -0,0 +1,84 @@
+package com.robsonkades.springwebflux.routing;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import com.robsonkades.springwebflux.config.DatabaseProperties;
+
+class ReadYourWritesWebFilterTest {
+
+    private final List<Boolean> replicaAllowed = new ArrayList<>();
+
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        replicaAllowed.add(DatabaseRouting.isReplicaAllowed(context));
+        return Mono.empty();
+    });
+
+    private final ReadYourWritesWebFilter filter = new ReadYourWritesWebFilter(replicaProperties());
+
+    @Test
+    @DisplayName("filter pins the reads of a client that just wrote to the primary, and only its reads")
+    public void filter_PinsReadsToPrimary_WhenClientJustWrote() {
+        StepVerifier.create(filter(exchange(MockServerHttpRequest.get("/animes"), "user")))
+                .verifyComplete();
+        StepVerifier.create(filter(exchange(MockServerHttpRequest.post("/animes"), "user")))
+                .verifyComplete();
+        StepVerifier.create(filter(exchange(MockServerHttpRequest.get("/animes"), "user")))
+                .verifyComplete();
+        StepVerifier.create(filter(exchange(MockServerHttpRequest.get("/animes"), "other")))
+                .verifyComplete();
+
+        Assertions.assertThat(replicaAllowed).containsExactly(true, true, false, true);
+    }
+
+    @Test
+    @DisplayName("filter leaves the reads of a client on the replicas when its write failed")
+    public void filter_KeepsReadsOnReplicas_WhenWriteFailed() {
+        WebFilterChain failingWrite = exchange -> Mono.error(new IllegalStateException("Write failed"));
+        WebFilterChain rejectedWrite = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.PRECONDITION_FAILED);
+            return Mono.empty();
+        };
+
+        StepVerifier.create(filter(exchange(MockServerHttpRequest.post("/animes"), "user"), failingWrite))
+                .verifyError(IllegalStateException.class);
+        StepVerifier.create(filter(exchange(MockServerHttpRequest.put("/animes/1"), "user"), rejectedWrite))
+                .verifyComplete();
+        StepVerifier.create(filter(exchange(MockServerHttpRequest.get("/animes"), "user")))
+                .verifyComplete();
+
+        Assertions.assertThat(replicaAllowed).containsExactly(true);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange) {
+        return filter(exchange, chain);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return filter.filter(exchange, chain).contextWrite(DatabaseRouting::readOnly);
+    }
+
+    private static ServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, String user) {
+        Principal principal = () -> user;
+        return MockServerWebExchange.from(request).mutate().principal(Mono.just(principal)).build();
+    }
+
+    private static DatabaseProperties replicaProperties() {
+        DatabaseProperties databaseProperties = new DatabaseProperties();
+        databaseProperties.getReplicas().getUrls().add("r2dbc:postgresql://localhost:5433/postgres");
+        return databaseProperties;
+    }
+}
@@ -0,0 +1,84 @@
+package com.robsonkades.springwebflux.service;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.robsonkades.springwebflux.domain.Anime;
+
+class AnimeNameIndexTest {
+
+    private AnimeNameIndex animeNameIndex;
+
+    @BeforeEach
+    public void setUp() {
+        animeNameIndex = new AnimeNameIndex();
+        animeNameIndex.put(new Anime(1, "Naruto", 0));
+        animeNameIndex.put(new Anime(2, "Boruto: Naruto Next Generations", 0));
+        animeNameIndex.put(new Anime(3, "Bleach", 0));
+        animeNameIndex.put(new Anime(4, "Naruto Shippuden", 0));
+    }
+
+    @Test
+    @DisplayName("trigrams pads every word like pg_trgm")
+    public void trigrams_PadsWords_LikePgTrgm() {
+        Assertions.assertThat(AnimeNameIndex.trigrams("Cat, Dog"))
+                .containsExactly("  c", " ca", "cat", "at ", "  d", " do", "dog", "og ");
+    }
+
+    @Test
+    @DisplayName("search ranks names starting with the query first, then by similarity")
+    public void search_RanksPrefixMatchesFirst() {
+        Assertions.assertThat(animeNameIndex.search("naruto", 10))
+                .extracting(Anime::getId)
+                .containsExactly(1, 4, 2);
+        Assertions.assertThat(animeNameIndex.search("naruto", 1))
+                .extracting(Anime::getId)
+                .containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("search tolerates typos above the similarity threshold")
+    public void search_MatchesSimilarNames_WhenQueryHasTypo() {
+        Assertions.assertThat(animeNameIndex.search("bleech", 10))
+                .extracting(Anime::getName)
+                .containsExactly("Bleach");
+        Assertions.assertThat(animeNameIndex.search("one piece", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search finds names containing a short query or a part of a word, like ILIKE")
+    public void search_MatchesSubstrings_WhenQueryHasNoSharedTrigram() {
+        Assertions.assertThat(animeNameIndex.search("ar", 10))
+                .extracting(Anime::getId)
+                .containsExactly(1, 2, 4);
+        Assertions.assertThat(animeNameIndex.search("Bl", 10))
+                .extracting(Anime::getName)
+                .containsExactly("Bleach");
+        Assertions.assertThat(animeNameIndex.search("o:", 10))
+                .extracting(Anime::getId)
+                .containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("put replaces the name of an anime unless the index holds a newer version")
+    public void put_ReplacesName_UnlessVersionIsOlder() {
+        animeNameIndex.put(new Anime(3, "Bleach: Thousand-Year Blood War", 1));
+        animeNameIndex.put(new Anime(3, "Bleach", 0));
+
+        Assertions.assertThat(animeNameIndex.search("blood war", 10))
+                .containsExactly(new Anime(3, "Bleach: Thousand-Year Blood War", 1));
+    }
+
+    @Test
+    @DisplayName("remove keeps an anime deleted during the load out of the index")
+    public void remove_KeepsAnimeOut_WhenDeletedWhileLoading() {
+        animeNameIndex.remove(3);
+        animeNameIndex.put(new Anime(3, "Bleach", 0));
+        animeNameIndex.markWarm();
+
+        Assertions.assertThat(animeNameIndex.search("bleach", 10)).isEmpty();
+        Assertions.assertThat(animeNameIndex.size()).isEqualTo(3);
+    }
+}
@@ -1,15 +1,25 @@
 package com.robsonkades.springwebflux.service;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.blockhound.BlockHound;
 import reactor.blockhound.BlockingOperationError;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -17,15 +27,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.AdditionalAnswers;
 import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.robsonkades.springwebflux.config.AnimeProperties;
+import com.robsonkades.springwebflux.deadline.Deadline;
+import com.robsonkades.springwebflux.deadline.DeadlineExceededException;
 import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.domain.AnimeChunkResult;
+import com.robsonkades.springwebflux.domain.AnimeLookup;
+import com.robsonkades.springwebflux.domain.AnimePage;
+import com.robsonkades.springwebflux.metrics.ReactiveMetrics;
 import com.robsonkades.springwebflux.repository.AnimeRepository;
+import com.robsonkades.springwebflux.resilience.Staleness;
 import com.robsonkades.springwebflux.util.AnimeCreator;
 
 @ExtendWith(SpringExtension.class)
@@ -37,6 +61,38 @@ public class AnimeServiceTest {
     @Mock
     private AnimeRepository animeRepository;
 
+    @Spy
+    private AnimeProperties animeProperties = new AnimeProperties();
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Spy
+    private AnimeCache animeCache = new AnimeCache(animeProperties, new SimpleMeterRegistry());
+
+    @Spy
+    private AnimeNameIndex animeNameIndex = new AnimeNameIndex();
+
+    @Spy
+    private AnimePageFlight animePageFlight = new AnimePageFlight(new SimpleMeterRegistry());
+
+    @Mock
+    private AnimeBatchLoader animeBatchLoader;
+
+    @Spy
+    private AnimeSnapshot animeSnapshot = new AnimeSnapshot(animeProperties);
+
+    private final CircuitBreaker breaker = CircuitBreaker.of("anime", CircuitBreakerConfig.custom()
+            .ignoreExceptions(DeadlineExceededException.class)
+            .build());
+
+    // the breaker class is final, so the spy wraps a delegating mock
+    @Spy
+    private CircuitBreaker circuitBreaker = Mockito.mock(CircuitBreaker.class, AdditionalAnswers.delegatesTo(breaker));
+
+    @Spy
+    private ReactiveMetrics reactiveMetrics = new ReactiveMetrics(new SimpleMeterRegistry());
+
     private final Anime anime = AnimeCreator.createValidAnime();
 
     @BeforeAll
@@ -69,21 +125,37 @@ public class AnimeServiceTest {
                 .when(animeRepository.findById(ArgumentMatchers.anyInt()))
                 .thenReturn(Mono.just(anime));
 
+        BDDMockito
+                .when(animeBatchLoader.load(ArgumentMatchers.anyInt()))
+                .thenAnswer(invocation -> animeRepository.findById(invocation.<Integer>getArgument(0)));
+
+        BDDMockito
+                .when(animeRepository.findPage(ArgumentMatchers.anyInt(), ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime));
+
         BDDMockito
                 .when(animeRepository.save(AnimeCreator.createAnimeToBeSaved()))
                 .thenReturn(Mono.just(anime));
 
         BDDMockito
-                .when(animeRepository.saveAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
+                .when(animeRepository.insertAll(List.of(AnimeCreator.createAnimeToBeSaved(), AnimeCreator.createAnimeToBeSaved())))
                 .thenReturn(Flux.just(anime, anime));
 
         BDDMockito
-                .when(animeRepository.delete(ArgumentMatchers.any(Anime.class)))
-                .thenReturn(Mono.empty());
+                .when(animeRepository.removeById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.just(1));
+
+        BDDMockito
+                .when(animeRepository.updateName(ArgumentMatchers.anyInt(), ArgumentMatchers.anyString()))
+                .thenAnswer(invocation -> Mono.just(new Anime(invocation.getArgument(0), invocation.getArgument(1), 1)));
 
         BDDMockito
                 .when(animeRepository.save(AnimeCreator.createValidAnime()))
                 .thenReturn(Mono.empty());
+
+        BDDMockito
+                .when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Object>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
@@ -96,6 +168,117 @@ public class AnimeServiceTest {
                 .verify();
     }
 
+    @Test
+    @DisplayName("streamAll returns a flux of anime using the configured fetch size")
+    public void streamAll_ReturnFluxOfAnime_WhenSuccessful() {
+        BDDMockito
+                .when(animeRepository.streamAll(ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime));
+
+        StepVerifier.create(animeService.streamAll())
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository).streamAll(animeProperties.getStreaming().getPrefetch());
+    }
+
+    @Test
+    @DisplayName("streamAll drops the consumer when it stalls longer than the stall timeout")
+    public void streamAll_ReturnError_WhenConsumerStalls() {
+        animeProperties.getStreaming().setStallTimeout(Duration.ofMillis(50));
+        BDDMockito
+                .when(animeRepository.streamAll(ArgumentMatchers.anyInt()))
+                .thenReturn(Flux.just(anime, anime));
+
+        StepVerifier.create(animeService.streamAll(), 1)
+                .expectSubscription()
+                .expectNext(anime)
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("findPage returns a page with the next cursor when the page is full")
+    public void findPage_ReturnPageWithNextCursor_WhenPageIsFull() {
+        StepVerifier.create(animeService.findPage(null, 1))
+                .expectSubscription()
+                .expectNext(new AnimePage(List.of(anime), anime.getId()))
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository).findPage(0, 1);
+    }
+
+    @Test
+    @DisplayName("findPage returns a page without next cursor when it is the last page")
+    public void findPage_ReturnPageWithoutNextCursor_WhenLastPage() {
+        StepVerifier.create(animeService.findPage(1, null))
+                .expectSubscription()
+                .expectNext(new AnimePage(List.of(anime), null))
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository).findPage(1, animeProperties.getPagination().getDefaultLimit());
+    }
+
+    @Test
+    @DisplayName("findPage caps the requested limit to the configured maximum")
+    public void findPage_CapsLimit_WhenLimitIsGreaterThanMaximum() {
+        StepVerifier.create(animeService.findPage(null, Integer.MAX_VALUE))
+                .expectSubscription()
+                .expectNextCount(1)
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository).findPage(0, animeProperties.getPagination().getMaxLimit());
+    }
+
+    @Test
+    @DisplayName("findPage returns Mono error when limit is not positive")
+    public void findPage_ReturnMonoError_WhenLimitIsNotPositive() {
+        StepVerifier.create(animeService.findPage(null, 0))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("search queries the database while the name index is not loaded")
+    public void search_QueriesDatabase_WhenIndexIsCold() {
+        BDDMockito
+                .when(animeRepository.searchByName("naru", animeProperties.getPagination().getDefaultLimit()))
+                .thenReturn(Flux.just(anime));
+
+        StepVerifier.create(animeService.search("naru", null))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("search answers from the name index once it is loaded, including animes saved since")
+    public void search_AnswersFromIndex_WhenIndexIsWarm() {
+        animeNameIndex.markWarm();
+        animeNameIndex.put(new Anime(2, "Bleach", 0));
+
+        StepVerifier.create(animeService.save(AnimeCreator.createAnimeToBeSaved())
+                        .thenMany(animeService.search(anime.getName(), 10)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository, BDDMockito.never())
+                .searchByName(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("search returns Flux error when the query is blank")
+    public void search_ReturnFluxError_WhenQueryIsBlank() {
+        StepVerifier.create(animeService.search(" ", null))
+                .expectSubscription()
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.BAD_REQUEST)
+                .verify();
+    }
+
     @Test
     @DisplayName("findById returns Mono with anime when it exists")
     public void findById_ReturnMonoOfAnime_WhenSuccessful() {
@@ -119,6 +302,69 @@ public class AnimeServiceTest {
                 .verify();
     }
 
+    @Test
+    @DisplayName("findById reads from the cache after the first lookup")
+    public void findById_ReturnCachedAnime_WhenCalledTwice() {
+        StepVerifier.create(animeService.findById(1).then(animeService.findById(1)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository, BDDMockito.times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("findAllById returns the animes in request order, each once, and the ids that do not exist")
+    public void findAllById_ReturnAnimesAndMissingIds_WhenSomeDoNotExist() {
+        BDDMockito
+                .when(animeRepository.findById(2))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(animeService.findAllById(List.of(2, 1, 2)))
+                .expectSubscription()
+                .expectNext(new AnimeLookup(List.of(anime), List.of(2)))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("findAllById returns Mono error when there are more ids than the page limit")
+    public void findAllById_ReturnMonoError_WhenThereAreTooManyIds() {
+        List<Integer> ids = IntStream.rangeClosed(1, 101).boxed().collect(Collectors.toList());
+
+        StepVerifier.create(animeService.findAllById(ids))
+                .expectSubscription()
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.BAD_REQUEST)
+                .verify();
+        BDDMockito.verifyNoInteractions(animeBatchLoader);
+    }
+
+    @Test
+    @DisplayName("findById caches not found lookups")
+    public void findById_CachesNotFound_WhenEmptyMonoIsReturned() {
+        BDDMockito
+                .when(animeRepository.findById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(animeService.findById(1).onErrorResume(e -> animeService.findById(1)))
+                .expectSubscription()
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        BDDMockito.verify(animeRepository, BDDMockito.times(1)).findById(1);
+    }
+
+    @Test
+    @DisplayName("delete invalidates the cached anime")
+    public void delete_InvalidatesCache_WhenSuccessful() {
+        StepVerifier.create(animeService.findById(1).then(animeService.delete(1, null)).then(animeService.findById(1)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository, BDDMockito.times(2)).findById(1);
+    }
+
     @Test
     @DisplayName("save creates an anime when successful")
     public void save_CreatesAnime_WhenSuccessful() {
@@ -147,21 +393,89 @@ public class AnimeServiceTest {
 
         Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
 
-        BDDMockito
-                .when(animeRepository.saveAll(ArgumentMatchers.anyIterable()))
-                .thenReturn(Flux.just(anime, anime.withName("")));
-
         StepVerifier.create(animeService.saveBatch(List.of(animeToBeSaved, animeToBeSaved.withName(""))))
                 .expectSubscription()
-                .expectNext(anime)
                 .expectError(ResponseStatusException.class)
                 .verify();
+
+        BDDMockito.verify(animeRepository, BDDMockito.never()).insertAll(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    @DisplayName("ingest commits each chunk and reports the saved ids")
+    public void ingest_CommitsChunks_WhenSuccessful() {
+        animeProperties.getBatch().setChunkSize(1);
+        BDDMockito
+                .when(animeRepository.insertAll(ArgumentMatchers.anyList()))
+                .thenReturn(Flux.just(anime));
+
+        Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        StepVerifier.create(animeService.ingest(Flux.just(animeToBeSaved, animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(AnimeChunkResult.committed(0, List.of(anime.getId())))
+                .expectNext(AnimeChunkResult.committed(1, List.of(anime.getId())))
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository, BDDMockito.times(2)).insertAll(List.of(animeToBeSaved));
+    }
+
+    @Test
+    @DisplayName("ingest stops before writing the chunk that contains an invalid name")
+    public void ingest_RejectsChunk_WhenContainsInvalidName() {
+        animeProperties.getBatch().setChunkSize(2);
+        BDDMockito
+                .when(animeRepository.insertAll(ArgumentMatchers.anyList()))
+                .thenReturn(Flux.just(anime, anime));
+
+        Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        StepVerifier.create(animeService.ingest(Flux.just(animeToBeSaved, animeToBeSaved, animeToBeSaved.withName(""), animeToBeSaved)))
+                .expectSubscription()
+                .expectNext(AnimeChunkResult.committed(0, List.of(anime.getId(), anime.getId())))
+                .expectNext(AnimeChunkResult.rejected(1, "Invalid name at row 2"))
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository, BDDMockito.times(1)).insertAll(ArgumentMatchers.anyList());
+    }
+
+    @Test
+    @DisplayName("ingest lets the chunk being committed finish when a row of the next chunk is invalid")
+    public void ingest_CommitsStartedChunk_WhenNextChunkIsInvalid() {
+        animeProperties.getBatch().setChunkSize(2);
+        Sinks.Many<Anime> rows = Sinks.many().unicast().onBackpressureBuffer();
+        Sinks.Many<Anime> committing = Sinks.many().unicast().onBackpressureBuffer();
+        PublisherProbe<Anime> inserted = PublisherProbe.of(committing.asFlux());
+        BDDMockito
+                .when(animeRepository.insertAll(ArgumentMatchers.anyList()))
+                .thenReturn(inserted.flux());
+
+        Anime animeToBeSaved = AnimeCreator.createAnimeToBeSaved();
+
+        StepVerifier.create(animeService.ingest(rows.asFlux()))
+                .expectSubscription()
+                .then(() -> {
+                    rows.tryEmitNext(animeToBeSaved);
+                    rows.tryEmitNext(animeToBeSaved);
+                    rows.tryEmitNext(animeToBeSaved.withName(""));
+                })
+                .then(() -> {
+                    committing.tryEmitNext(anime);
+                    committing.tryEmitNext(anime);
+                    committing.tryEmitComplete();
+                })
+                .expectNext(AnimeChunkResult.committed(0, List.of(anime.getId(), anime.getId())))
+                .expectNext(AnimeChunkResult.rejected(1, "Invalid name at row 2"))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        inserted.assertWasNotCancelled();
     }
 
     @Test
     @DisplayName("delete removes the anime when successful")
     public void delete_RemovesAnime_WhenSuccessful() {
-        StepVerifier.create(animeService.delete(1))
+        StepVerifier.create(animeService.delete(1, null))
                 .expectSubscription()
                 .verifyComplete();
     }
@@ -170,33 +484,164 @@ public class AnimeServiceTest {
     @DisplayName("delete returns mono error when anime does not exist")
     public void delete_ReturnsMonoError_WhenEmptyMonoIsReturned() {
         BDDMockito
-                .when(animeRepository.findById(ArgumentMatchers.anyInt()))
-                .thenReturn(Mono.empty());
+                .when(animeRepository.removeById(ArgumentMatchers.anyInt()))
+                .thenReturn(Mono.just(0));
 
-        StepVerifier.create(animeService.delete(1))
+        StepVerifier.create(animeService.delete(1, null))
                 .expectSubscription()
                 .expectError(ResponseStatusException.class)
                 .verify();
     }
 
+    @Test
+    @DisplayName("delete returns precondition failed when the anime has another version")
+    public void delete_ReturnsPreconditionFailed_WhenVersionDoesNotMatch() {
+        BDDMockito
+                .when(animeRepository.removeById(1, List.of(0)))
+                .thenReturn(Mono.just(0));
+        BDDMockito
+                .when(animeRepository.findVersionById(1))
+                .thenReturn(Mono.just(1));
+
+        StepVerifier.create(animeService.delete(1, List.of(0)))
+                .expectSubscription()
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.PRECONDITION_FAILED)
+                .verify();
+    }
+
     @Test
     @DisplayName("update save updated anime and return empty mono when successful")
     public void update_SaveUpdatedAnime_WhenSuccessful() {
-        StepVerifier.create(animeService.update(AnimeCreator.createValidAnime()))
+        StepVerifier.create(animeService.update(AnimeCreator.updateAnime(), null).then(animeService.findById(1)))
                 .expectSubscription()
+                .expectNext(AnimeCreator.updateAnime())
                 .verifyComplete();
+
+        BDDMockito.verify(animeRepository).updateName(1, AnimeCreator.updateAnime().getName());
+        BDDMockito.verify(animeRepository, BDDMockito.never()).findById(ArgumentMatchers.anyInt());
     }
 
     @Test
     @DisplayName("update returns Mono error when anime does exist")
     public void update_ReturnMonoError_WhenEmptyMonoIsReturned() {
         BDDMockito
-                .when(animeRepository.findById(ArgumentMatchers.anyInt()))
+                .when(animeRepository.updateName(ArgumentMatchers.anyInt(), ArgumentMatchers.anyString()))
                 .thenReturn(Mono.empty());
 
-        StepVerifier.create(animeService.update(AnimeCreator.createValidAnime()))
+        StepVerifier.create(animeService.update(AnimeCreator.createValidAnime(), null))
                 .expectSubscription()
                 .expectError(ResponseStatusException.class)
                 .verify();
     }
+
+    @Test
+    @DisplayName("update returns precondition failed when the anime has another version")
+    public void update_ReturnsPreconditionFailed_WhenVersionDoesNotMatch() {
+        BDDMockito
+                .when(animeRepository.updateName(1, "Naruto", List.of(0)))
+                .thenReturn(Mono.empty());
+        BDDMockito
+                .when(animeRepository.findVersionById(1))
+                .thenReturn(Mono.just(1));
+
+        StepVerifier.create(animeService.update(AnimeCreator.createValidAnime(), List.of(0)))
+                .expectSubscription()
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.PRECONDITION_FAILED)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("update returns not found when the anime to update conditionally does not exist")
+    public void update_ReturnsNotFound_WhenConditionalAnimeDoesNotExist() {
+        BDDMockito
+                .when(animeRepository.updateName(1, "Naruto", List.of(0)))
+                .thenReturn(Mono.empty());
+        BDDMockito
+                .when(animeRepository.findVersionById(1))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(animeService.update(AnimeCreator.createValidAnime(), List.of(0)))
+                .expectSubscription()
+                .expectErrorMatches(e -> e instanceof ResponseStatusException
+                        && ((ResponseStatusException) e).getStatus() == HttpStatus.NOT_FOUND)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("findVersion answers from the cache without querying the version")
+    public void findVersion_ReturnsCachedVersion_WhenAnimeIsCached() {
+        StepVerifier.create(animeService.findById(1).then(animeService.findVersion(1)))
+                .expectSubscription()
+                .expectNext(anime.getVersion())
+                .verifyComplete();
+
+        BDDMockito.verify(animeRepository, BDDMockito.never()).findVersionById(ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("findById returns the last known anime marked as stale when the database is unavailable")
+    public void findById_ReturnsStaleSnapshot_WhenDatabaseIsUnavailable() {
+        animeService.findById(1).block();
+        animeCache.invalidate(1);
+        BDDMockito
+                .when(animeBatchLoader.load(1))
+                .thenReturn(Mono.error(CallNotPermittedException.createCallNotPermittedException(breaker)));
+        Staleness staleness = new Staleness();
+
+        StepVerifier.create(animeService.findById(1).contextWrite(context -> Staleness.into(context, staleness)))
+                .expectSubscription()
+                .expectNext(anime)
+                .verifyComplete();
+
+        Assertions.assertNotNull(staleness.getOldest());
+    }
+
+    @Test
+    @DisplayName("findById returns the error when the database is unavailable and there is no snapshot")
+    public void findById_ReturnsMonoError_WhenDatabaseIsUnavailableWithoutSnapshot() {
+        BDDMockito
+                .when(animeBatchLoader.load(1))
+                .thenReturn(Mono.error(CallNotPermittedException.createCallNotPermittedException(breaker)));
+
+        StepVerifier.create(animeService.findById(1))
+                .expectSubscription()
+                .expectError(CallNotPermittedException.class)
+                .verify();
+    }
+
+    @Test
+    @DisplayName("findVersion fails with the deadline, not counted by the breaker nor answered from the snapshot")
+    public void findVersion_ReturnsDeadlineExceeded_WhenRequestRanOutOfTime() {
+        animeSnapshot.put(anime);
+        BDDMockito
+                .when(animeRepository.findVersionById(1))
+                .thenReturn(Mono.error(new QueryTimeoutException("canceling statement due to statement timeout")));
+
+        StepVerifier.create(animeService.findVersion(1)
+                        .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ZERO))))
+                .expectSubscription()
+                .expectError(DeadlineExceededException.class)
+                .verify();
+
+        Assertions.assertEquals(0, breaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    @DisplayName("save fails fast without querying while the circuit breaker is open")
+    public void save_ReturnsCallNotPermitted_WhenCircuitBreakerIsOpen() {
+        PublisherProbe<Anime> saved = PublisherProbe.of(Mono.just(anime));
+        BDDMockito
+                .when(animeRepository.save(AnimeCreator.createAnimeToBeSaved()))
+                .thenReturn(saved.mono());
+        breaker.transitionToOpenState();
+
+        StepVerifier.create(animeService.save(AnimeCreator.createAnimeToBeSaved()))
+                .expectSubscription()
+                .expectError(CallNotPermittedException.class)
+                .verify();
+
+        saved.assertWasNotSubscribed();
+    }
 }
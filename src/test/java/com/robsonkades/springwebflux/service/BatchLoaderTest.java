@@ -0,0 +1,124 @@
+package com.robsonkades.springwebflux.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.robsonkades.springwebflux.deadline.Deadline;
+
+class BatchLoaderTest {
+
+    private static final Map<Integer, String> VALUES = Map.of(1, "Naruto", 2, "Bleach", 3, "One Piece");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("load sends the keys arriving within the window as one batch, each distinct key once")
+    public void load_BatchesKeys_WhenTheyArriveWithinTheWindow() {
+        BatchLoader<Integer, String> loader = loader(Duration.ofMillis(50), 100, Flux.empty());
+
+        StepVerifier.create(Mono.zip(load(loader, 1), load(loader, 4), load(loader, 1), load(loader, 2)))
+                .expectSubscription()
+                .expectNextMatches(results -> results.getT1().equals(Optional.of("Naruto"))
+                        && results.getT2().isEmpty()
+                        && results.getT3().equals(Optional.of("Naruto"))
+                        && results.getT4().equals(Optional.of("Bleach")))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(batches).containsExactly(List.of(1, 4, 2));
+        Assertions.assertThat(meterRegistry.get("batchloader.size").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("load sends a full batch without waiting for the window")
+    public void load_SendsBatch_WhenItIsFull() {
+        BatchLoader<Integer, String> loader = loader(Duration.ofHours(1), 2, Flux.empty());
+
+        StepVerifier.create(Mono.zip(load(loader, 1), load(loader, 2)))
+                .expectSubscription()
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(batches).containsExactly(List.of(1, 2));
+    }
+
+    @Test
+    @DisplayName("load fails every caller of a batch that fails")
+    public void load_ReturnsError_WhenBatchFails() {
+        BatchLoader<Integer, String> loader = loader(Duration.ZERO, 100, Flux.error(new IllegalStateException("down")));
+
+        StepVerifier.create(loader.load(1))
+                .expectSubscription()
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("load runs the batch without the deadline of its first caller, whose timeout fails it alone")
+    public void load_IgnoresFirstCallerDeadline_WhenCallersHaveDifferentDeadlines() {
+        List<Optional<Deadline>> deadlines = new CopyOnWriteArrayList<>();
+        BatchLoader<Integer, String> loader = loader(Duration.ofMillis(20), 100, Flux.deferContextual(context -> {
+            deadlines.add(Deadline.from(context));
+            return Flux.<String>empty().delaySubscription(Duration.ofMillis(200));
+        }));
+        Mono<Optional<String>> hurried = load(loader, 1)
+                .timeout(Duration.ofMillis(50))
+                .onErrorResume(TimeoutException.class, e -> Mono.just(Optional.of("timed out")))
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(50))));
+        Mono<Optional<String>> patient = load(loader, 2)
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofSeconds(5))));
+
+        StepVerifier.create(Mono.zip(hurried, patient))
+                .expectSubscription()
+                .expectNextMatches(results -> results.getT1().equals(Optional.of("timed out"))
+                        && results.getT2().equals(Optional.of("Bleach")))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(deadlines).containsExactly(Optional.empty());
+        Assertions.assertThat(batches).containsExactly(List.of(1, 2));
+    }
+
+    private Mono<Optional<String>> load(BatchLoader<Integer, String> loader, int key) {
+        return loader.load(key).map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+
+    private BatchLoader<Integer, String> loader(Duration window, int maxSize, Flux<String> failure) {
+        return new BatchLoader<>("test", window, maxSize, meterRegistry) {
+
+            @Override
+            protected Flux<String> loadAll(List<Integer> keys) {
+                batches.add(keys);
+                return Flux.fromIterable(keys)
+                        .filter(VALUES::containsKey)
+                        .map(VALUES::get)
+                        .concatWith(failure);
+            }
+
+            @Override
+            protected Integer keyOf(String value) {
+                return VALUES.entrySet().stream()
+                        .filter(entry -> entry.getValue().equals(value))
+                        .findFirst()
+                        .orElseThrow()
+                        .getKey();
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.robsonkades.springwebflux.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ReactiveCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ReactiveCache<Integer, String> cache =
+            new ReactiveCache<>("test", 100, Duration.ofMinutes(1), Duration.ofSeconds(1), meterRegistry);
+
+    @Test
+    @DisplayName("get keeps loading for the other callers when the caller that started the load cancels")
+    public void get_KeepsLoad_WhenOneCallerCancels() {
+        Sinks.One<String> result = Sinks.one();
+        AtomicInteger loads = new AtomicInteger();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> load = result.asMono()
+                .doOnSubscribe(subscription -> loads.incrementAndGet())
+                .doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = cache.get(1, key -> load).subscribe();
+        StepVerifier.create(cache.get(1, key -> load))
+                .expectSubscription()
+                .then(first::dispose)
+                .then(() -> result.tryEmitValue("Naruto"))
+                .expectNext("Naruto")
+                .verifyComplete();
+
+        Assertions.assertThat(cancelled).isFalse();
+        Assertions.assertThat(loads).hasValue(1);
+        Assertions.assertThat(meterRegistry.get("singleflight.calls").tag("outcome", "coalesced").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("get cancels the load once every caller cancelled, and a later caller loads again")
+    public void get_CancelsLoad_WhenEveryCallerCancels() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> load = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = cache.get(1, key -> load).subscribe();
+        Disposable second = cache.get(1, key -> load).subscribe();
+        first.dispose();
+        Assertions.assertThat(cancelled).isFalse();
+        second.dispose();
+        Assertions.assertThat(cancelled).isTrue();
+
+        StepVerifier.create(cache.get(1, key -> Mono.just("Naruto")))
+                .expectNext("Naruto")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,147 @@
+package com.robsonkades.springwebflux.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.robsonkades.springwebflux.deadline.Deadline;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SingleFlight<Integer, String> singleFlight;
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    private Sinks.One<String> result;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        result = Sinks.one();
+    }
+
+    @Test
+    @DisplayName("execute subscribes once for concurrent callers of the same key and counts the coalesced ones")
+    public void execute_SharesCall_WhenCallersAreConcurrent() {
+        StepVerifier.create(Mono.zip(execute(1), execute(1), execute(2)))
+                .expectSubscription()
+                .then(() -> result.tryEmitValue("Naruto"))
+                .expectNextMatches(results -> results.getT1().equals("Naruto") && results.getT3().equals("Naruto"))
+                .verifyComplete();
+
+        Assertions.assertThat(subscriptions).hasValue(2);
+        Assertions.assertThat(calls("executed")).isEqualTo(2);
+        Assertions.assertThat(calls("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("execute keeps the call running for the others when one caller cancels")
+    public void execute_KeepsCall_WhenOneCallerCancels() {
+        Disposable first = execute(1).subscribe();
+        Mono<String> second = execute(1);
+
+        StepVerifier.create(second)
+                .expectSubscription()
+                .then(first::dispose)
+                .then(() -> result.tryEmitValue("Naruto"))
+                .expectNext("Naruto")
+                .verifyComplete();
+
+        Assertions.assertThat(cancelled).isFalse();
+        Assertions.assertThat(subscriptions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("execute cancels the call once every caller cancelled, and a later caller starts a new one")
+    public void execute_CancelsCall_WhenEveryCallerCancels() {
+        Disposable first = execute(1).subscribe();
+        Disposable second = execute(1).subscribe();
+
+        first.dispose();
+        Assertions.assertThat(cancelled).isFalse();
+        second.dispose();
+        Assertions.assertThat(cancelled).isTrue();
+
+        StepVerifier.create(execute(1))
+                .expectSubscription()
+                .then(() -> result.tryEmitValue("Naruto"))
+                .expectNext("Naruto")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        Assertions.assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("execute runs the call without the deadline of its first caller, whose timeout fails it alone")
+    public void execute_IgnoresFirstCallerDeadline_WhenCallersHaveDifferentDeadlines() {
+        AtomicReference<Optional<Deadline>> callDeadline = new AtomicReference<>();
+        AtomicReference<Throwable> hurriedError = new AtomicReference<>();
+        singleFlight.execute(1, k -> Mono.deferContextual(context -> {
+                    callDeadline.set(Deadline.from(context));
+                    return call();
+                }))
+                .timeout(Duration.ofMillis(200))
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(200))))
+                .subscribe(value -> { }, hurriedError::set);
+
+        Deadline patient = Deadline.after(Duration.ofSeconds(5));
+        StepVerifier.create(execute(1).contextWrite(context -> context.put(Deadline.CONTEXT_KEY, patient)))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(400))
+                .then(() -> result.tryEmitValue("Naruto"))
+                .expectNext("Naruto")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        Assertions.assertThat(hurriedError.get()).isInstanceOf(TimeoutException.class);
+        Assertions.assertThat(callDeadline.get()).isEmpty();
+        Assertions.assertThat(cancelled).isFalse();
+    }
+
+    @Test
+    @DisplayName("execute starts a new call once the previous one completed, and shares errors and empty results")
+    public void execute_StartsNewCall_AfterCompletion() {
+        result.tryEmitEmpty();
+        StepVerifier.create(execute(1)).verifyComplete();
+
+        result = Sinks.one();
+        result.tryEmitError(new IllegalStateException("down"));
+        StepVerifier.create(execute(1)).verifyError(IllegalStateException.class);
+
+        Assertions.assertThat(subscriptions).hasValue(2);
+        Assertions.assertThat(meterRegistry.get("singleflight.inflight").gauge().value()).isZero();
+    }
+
+    private Mono<String> execute(int key) {
+        return singleFlight.execute(key, k -> call());
+    }
+
+    private Mono<String> call() {
+        return result.asMono()
+                .doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+                .doOnCancel(() -> cancelled.set(true));
+    }
+
+    private double calls(String outcome) {
+        return meterRegistry.get("singleflight.calls").tag("outcome", outcome).counter().count();
+    }
+}
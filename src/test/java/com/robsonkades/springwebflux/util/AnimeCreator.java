@@ -17,6 +17,7 @@ public class AnimeCreator {
         return Anime.builder()
                 .id(1)
                 .name("Naruto")
+                .version(0)
                 .build();
     }
 
@@ -24,6 +25,7 @@ public class AnimeCreator {
         return Anime.builder()
                 .id(1)
                 .name("Naruto 2")
+                .version(1)
                 .build();
     }
 }
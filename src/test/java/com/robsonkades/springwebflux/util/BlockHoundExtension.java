@@ -0,0 +1,16 @@
+package com.robsonkades.springwebflux.util;
+
+import org.junit.jupiter.api.extension.Extension;
+
+import com.robsonkades.springwebflux.config.BlockHoundInstaller;
+
+/**
+ * Installs BlockHound once, when JUnit loads the extensions registered in {@code META-INF/services}, that is before
+ * the first test class runs and before any of them can start a Reactor scheduler.
+ */
+public class BlockHoundExtension implements Extension {
+
+    static {
+        BlockHoundInstaller.install();
+    }
+}
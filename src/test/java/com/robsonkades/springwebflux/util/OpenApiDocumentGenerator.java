@@ -0,0 +1,44 @@
+package com.robsonkades.springwebflux.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.robsonkades.springwebflux.SpringWebfluxApplication;
+
+/**
+ * Starts the application on the {@code memory} profile, fetches the generated OpenAPI document and writes it to the
+ * path given as first argument. Run by the {@code production} Maven profile so the document ships as a static
+ * resource and the {@code prod} profile does not have to build it at runtime.
+ */
+public class OpenApiDocumentGenerator {
+
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args[0]);
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ReactiveWebServerApplicationContext context = (ReactiveWebServerApplicationContext)
+                new SpringApplicationBuilder(SpringWebfluxApplication.class)
+                        .profiles("memory")
+                        .properties("server.port=0", "springdoc.api-docs.enabled=true")
+                        .run()) {
+            ObjectNode document = WebClient.create("http://localhost:" + context.getWebServer().getPort())
+                    .get()
+                    .uri("/v3/api-docs")
+                    .retrieve()
+                    .bodyToMono(ObjectNode.class)
+                    .block();
+            // The generated server url points at the throwaway port of this run
+            document.remove("servers");
+            Files.createDirectories(output.getParent());
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), document);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.robsonkades.springwebflux.util;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.reactivestreams.Publisher;
+
+import com.robsonkades.springwebflux.domain.Anime;
+import com.robsonkades.springwebflux.repository.AnimeRepository;
+
+/**
+ * Answers from a fixed list of animes (ids 1..size) so the service pipelines can be measured without I/O.
+ * Writes are acknowledged but never stored.
+ */
+public class StubAnimeRepository implements AnimeRepository {
+
+    private final List<Anime> animes;
+
+    private final AtomicInteger sequence;
+
+    public StubAnimeRepository(int size) {
+        this.animes = IntStream.rangeClosed(1, size)
+                .mapToObj(id -> new Anime(id, "Anime " + id, 0))
+                .collect(Collectors.toList());
+        this.sequence = new AtomicInteger(size);
+    }
+
+    @Override
+    public Mono<Anime> findById(Integer id) {
+        return id > 0 && id <= animes.size() ? Mono.just(animes.get(id - 1)) : Mono.empty();
+    }
+
+    @Override
+    public Flux<Anime> findAll() {
+        return Flux.fromIterable(animes);
+    }
+
+    @Override
+    public Flux<Anime> findPage(int after, int limit) {
+        int from = Math.min(Math.max(after, 0), animes.size());
+        return Flux.fromIterable(animes.subList(from, Math.min(from + limit, animes.size())));
+    }
+
+    @Override
+    public Flux<Anime> streamAll(int fetchSize) {
+        return Flux.fromIterable(animes);
+    }
+
+    @Override
+    public Mono<Integer> findVersionById(Integer id) {
+        return findById(id).map(Anime::getVersion);
+    }
+
+    @Override
+    public Mono<Anime> updateName(Integer id, String name) {
+        return findById(id).map(anime -> anime.withName(name).withVersion(anime.getVersion() + 1));
+    }
+
+    @Override
+    public Mono<Anime> updateName(Integer id, String name, Collection<Integer> versions) {
+        return findById(id)
+                .filter(anime -> versions.contains(anime.getVersion()))
+                .flatMap(anime -> updateName(id, name));
+    }
+
+    @Override
+    public Mono<Integer> removeById(Integer id) {
+        return Mono.just(id > 0 && id <= animes.size() ? 1 : 0);
+    }
+
+    @Override
+    public Mono<Integer> removeById(Integer id, Collection<Integer> versions) {
+        return findVersionById(id).map(version -> versions.contains(version) ? 1 : 0).defaultIfEmpty(0);
+    }
+
+    @Override
+    public <S extends Anime> Mono<S> save(S anime) {
+        anime.setId(sequence.incrementAndGet());
+        return Mono.just(anime);
+    }
+
+    @Override
+    public Flux<Anime> insertAll(List<Anime> animes) {
+        return Flux.fromIterable(animes)
+                .map(anime -> anime.withId(sequence.incrementAndGet()));
+    }
+
+    @Override
+    public Flux<Anime> searchByName(String query, int limit) {
+        return Flux.fromIterable(animes.subList(0, Math.min(limit, animes.size())));
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends Anime> Flux<S> saveAll(Publisher<S> entities) {
+        return Flux.from(entities).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Anime> findById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Integer id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Integer> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<Anime> findAllByIdIn(Integer[] ids) {
+        return Flux.fromArray(ids).distinct().concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Iterable<Integer> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<Anime> findAllById(Publisher<Integer> ids) {
+        return Flux.from(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.just((long) animes.size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Integer id) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Integer> id) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> delete(Anime anime) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Integer> ids) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends Anime> animes) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends Anime> animes) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.empty();
+    }
+}